@@ -0,0 +1,71 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+class BenchmarkData {
+    private static final LocalDateTime START = LocalDateTime.of(2022, 12, 12, 12, 0);
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static User user(int id) {
+        return new User(id, "user" + id, "user" + id + "@email.ru");
+    }
+
+    static List<Item> items(int size, ItemRequest request) {
+        User owner = user(1);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            items.add(new Item(i, "Дрель " + i, "Ударная дрель с набором сверл, модель " + i, true, owner,
+                    request));
+        }
+        return items;
+    }
+
+    static List<Booking> bookings(int size) {
+        User booker = user(2);
+        List<Item> items = items(size, null);
+        List<Booking> bookings = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            LocalDateTime start = START.plusDays(i);
+            bookings.add(new Booking(i, start, start.plusDays(1), items.get(i - 1), booker, BookingStatus.APPROVED,
+                    BookingPhase.FUTURE));
+        }
+        return bookings;
+    }
+
+    static List<CommentDto> comments(int size) {
+        List<CommentDto> comments = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            comments.add(new CommentDto(i, "Отличная вещь, все работает " + i, "user" + i, START.plusHours(i)));
+        }
+        return comments;
+    }
+
+    static List<ItemRequest> requests(int size) {
+        User requester = user(3);
+        List<ItemRequest> requests = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            requests.add(new ItemRequest(i, "Нужна дрель на выходные " + i, requester, START.plusMinutes(i)));
+        }
+        return requests;
+    }
+}
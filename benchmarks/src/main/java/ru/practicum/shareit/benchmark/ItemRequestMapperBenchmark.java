@@ -0,0 +1,71 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.dto.ItemRequestMapper;
+import ru.practicum.shareit.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemRequestMapperBenchmark {
+    private static final int ITEMS_PER_REQUEST = 5;
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private List<ItemRequest> requests;
+    private List<List<Item>> items;
+    private List<ItemRequestResponseDto> itemRequestResponseDtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        requests = BenchmarkData.requests(size);
+        items = new ArrayList<>(size);
+        for (ItemRequest request : requests) {
+            items.add(BenchmarkData.items(ITEMS_PER_REQUEST, request));
+        }
+        itemRequestResponseDtos = map();
+        objectMapper = BenchmarkData.objectMapper();
+    }
+
+    @Benchmark
+    public List<ItemRequestResponseDto> map() {
+        List<ItemRequestResponseDto> result = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            result.add(ItemRequestMapper.toItemRequestResponseDto(requests.get(i), items.get(i)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemRequestResponseDtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+}
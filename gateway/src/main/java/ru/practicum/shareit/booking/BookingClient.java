@@ -2,43 +2,52 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingApproveRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         ServerExchangeFactory serverExchangeFactory,
+                         ResponseCache responseCache,
+                         RequestCoalescer requestCoalescer) {
+        super(serverExchangeFactory.create(serverUrl + API_PREFIX), responseCache, requestCoalescer, API_PREFIX,
+                Set.of(API_PREFIX, "/items"));
     }
 
-    public ResponseEntity<Object> createBooking(int userId, BookingRequestDto bookingRequestDto) {
-        return post("", userId, bookingRequestDto);
+    public CompletableFuture<ResponseEntity<Object>> createBooking(int userId, String idempotencyKey,
+                                                                   BookingRequestDto bookingRequestDto) {
+        return post("", userId, idempotencyKey, bookingRequestDto);
     }
 
-    public ResponseEntity<Object> approveBooking(int userId, int bookingId, boolean isApproved) {
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(int userId, int bookingId, boolean isApproved) {
         return patch("/" + bookingId + "?approved=" + isApproved, userId);
     }
 
-    public ResponseEntity<Object> findBookingById(int userId, int bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> approveBookings(int userId,
+                                                                     BookingApproveRequestDto bookingApproveRequestDto) {
+        return patch("/approve", userId, bookingApproveRequestDto);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> findBookingById(int userId, int bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findBookingByUser(int userId, String state, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> findBookingByUser(int userId, String state, Integer from,
+                                                                       Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
@@ -47,7 +56,7 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findBookingByOwner(int ownerId, String state, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> findBookingByOwner(int ownerId, String state, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
@@ -55,4 +64,24 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
+
+    public CompletableFuture<ResponseEntity<Object>> findBookingByUser(int userId, String state, String cursor,
+                                                                       int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> findBookingByOwner(int ownerId, String state, String cursor,
+                                                                        int size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", ownerId, parameters);
+    }
 }
@@ -5,11 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingApproveRequestDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,20 +24,23 @@ import javax.validation.constraints.PositiveOrZero;
 public class BookingController {
 
     private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_PAGE_SIZE = 100;
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(
+    public CompletableFuture<ResponseEntity<Object>> createBooking(
             @RequestHeader(X_SHARER_USER_ID) int userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
             @Validated @RequestBody BookingRequestDto bookingRequestDto
     ) {
         checkStartAndEnd(bookingRequestDto);
         log.info("Вызван метод addBooking() в BookingController");
-        return bookingClient.createBooking(userId, bookingRequestDto);
+        return bookingClient.createBooking(userId, idempotencyKey, bookingRequestDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @PathVariable int bookingId,
             @RequestParam boolean approved
@@ -41,8 +49,17 @@ public class BookingController {
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/approve")
+    public CompletableFuture<ResponseEntity<Object>> approveBookings(
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @Validated @RequestBody BookingApproveRequestDto bookingApproveRequestDto
+    ) {
+        log.info("Вызван метод approveBookings() в BookingController");
+        return bookingClient.approveBookings(userId, bookingApproveRequestDto);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(
+    public CompletableFuture<ResponseEntity<Object>> getBookingById(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @PathVariable int bookingId
     ) {
@@ -51,26 +68,34 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getByUser(
+    public CompletableFuture<ResponseEntity<Object>> getByUser(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @RequestParam(value = "state", defaultValue = "ALL")
             String state,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") int size
+            @Positive @Max(MAX_PAGE_SIZE) @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         log.info("Вызван метод findBookingByUser() в BookingController");
+        if (cursor != null) {
+            return bookingClient.findBookingByUser(userId, state, cursor, size);
+        }
         return bookingClient.findBookingByUser(userId, state, from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getByOwner(
+    public CompletableFuture<ResponseEntity<Object>> getByOwner(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @RequestParam(value = "state", defaultValue = "ALL")
             String state,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
-            @Positive @RequestParam(name = "size", defaultValue = "10") int size
+            @Positive @Max(MAX_PAGE_SIZE) @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "cursor", required = false) String cursor
     ) {
         log.info("Вызван метод findBookingByOwner() в BookingController");
+        if (cursor != null) {
+            return bookingClient.findBookingByOwner(userId, state, cursor, size);
+        }
         return bookingClient.findBookingByOwner(userId, state, from, size);
     }
 
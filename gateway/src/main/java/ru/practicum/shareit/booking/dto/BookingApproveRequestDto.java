@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingApproveRequestDto {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull Integer> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
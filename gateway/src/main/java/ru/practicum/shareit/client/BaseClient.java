@@ -2,111 +2,196 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final Set<String> EXCLUDED_RESPONSE_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final ServerExchange serverExchange;
+    private final ResponseCache responseCache;
+    private final RequestCoalescer requestCoalescer;
+    private final String requestKeyPrefix;
+    private final Collection<String> invalidatedKeyPrefixes;
+
+    public BaseClient(ServerExchange serverExchange) {
+        this(serverExchange, null, null, "", Set.of(""));
+    }
+
+    public BaseClient(ServerExchange serverExchange, @Nullable ResponseCache responseCache,
+                      @Nullable RequestCoalescer requestCoalescer, String requestKeyPrefix,
+                      Collection<String> invalidatedKeyPrefixes) {
+        this.serverExchange = serverExchange;
+        this.responseCache = responseCache;
+        this.requestCoalescer = requestCoalescer;
+        this.requestKeyPrefix = requestKeyPrefix;
+        this.invalidatedKeyPrefixes = invalidatedKeyPrefixes;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, int userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, int userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Integer userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, Integer userId) {
+        return getCached(path, userId, null);
+    }
+
+    protected CompletableFuture<ResponseEntity<Object>> getCached(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+        if (responseCache == null) {
+            return get(path, userId, parameters);
+        }
+        String key = requestKey(path, userId, parameters);
+        ResponseCache.Entry entry = responseCache.find(key);
+        if (entry != null && responseCache.isFresh(entry)) {
+            responseCache.recordHit();
+            return CompletableFuture.completedFuture(prepareGatewayResponse(entry.getResponse()));
+        }
+        HttpHeaders headers = defaultHeaders(userId, null);
+        String requestKey = key;
+        if (entry != null && entry.getEtag() != null) {
+            headers.setIfNoneMatch(entry.getEtag());
+            requestKey = key + " " + entry.getEtag();
+        }
+        long generation = responseCache.generation(requestKeyPrefix);
+        return coalesce(requestKey, () -> serverExchange.exchange(HttpMethod.GET, path, headers, parameters, null))
+                .thenApply(response -> {
+                    if (entry != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        responseCache.recordRevalidation();
+                        responseCache.put(requestKeyPrefix, key, entry.getResponse(), generation);
+                        return prepareGatewayResponse(entry.getResponse());
+                    }
+                    responseCache.recordMiss();
+                    if (response.getStatusCode() == HttpStatus.OK) {
+                        responseCache.put(requestKeyPrefix, key, response, generation);
+                    }
+                    return prepareGatewayResponse(response);
+                });
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, int userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, int userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, int userId, @Nullable String idempotencyKey, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, idempotencyKey, null, body);
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, int userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, int userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, int userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, int userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, int userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, int userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, int userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, int userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Integer userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, int userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, int userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Integer userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, null, parameters, body);
+    }
+
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable String idempotencyKey, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpHeaders headers = defaultHeaders(userId, idempotencyKey);
+        if (method == HttpMethod.GET) {
+            return coalesce(requestKey(path, userId, parameters),
+                    () -> serverExchange.exchange(method, path, headers, parameters, body))
+                    .thenApply(BaseClient::prepareGatewayResponse);
+        }
+        invalidate();
+        return serverExchange.exchange(method, path, headers, parameters, body)
+                .whenComplete((result, e) -> invalidate())
+                .thenApply(BaseClient::prepareGatewayResponse);
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> coalesce(String requestKey,
+                                                               Supplier<CompletableFuture<ResponseEntity<byte[]>>> request) {
+        if (requestCoalescer == null) {
+            return request.get();
+        }
+        return requestCoalescer.execute(requestKey, request);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    private void invalidate() {
+        for (String keyPrefix : invalidatedKeyPrefixes) {
+            if (responseCache != null) {
+                responseCache.invalidate(keyPrefix);
+            }
+            if (requestCoalescer != null) {
+                requestCoalescer.detach(keyPrefix);
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
-    private HttpHeaders defaultHeaders(Integer userId) {
+    private String requestKey(String path, Integer userId, @Nullable Map<String, Object> parameters) {
+        return requestKeyPrefix + path + " " + userId + " " + (parameters == null ? "" : new TreeMap<>(parameters));
+    }
+
+    private HttpHeaders defaultHeaders(Integer userId, @Nullable String idempotencyKey) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (idempotencyKey != null) {
+            headers.set("Idempotency-Key", idempotencyKey);
+        }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode())
+                .headers(passthroughHeaders(response.getHeaders()));
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -114,4 +199,16 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
+
+    private static HttpHeaders passthroughHeaders(@Nullable HttpHeaders headers) {
+        HttpHeaders passthroughHeaders = new HttpHeaders();
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!EXCLUDED_RESPONSE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    passthroughHeaders.put(name, values);
+                }
+            });
+        }
+        return passthroughHeaders;
+    }
 }
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.util.UriBuilderFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class HttpClientExchange implements ServerExchange {
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final Duration readTimeout;
+
+    public HttpClientExchange(HttpClient httpClient, ObjectMapper objectMapper, UriBuilderFactory uriBuilderFactory,
+                              Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.uriBuilderFactory = uriBuilderFactory;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                              @Nullable Map<String, Object> parameters,
+                                                              @Nullable Object body) {
+        URI uri = parameters != null ? uriBuilderFactory.expand(path, parameters) : uriBuilderFactory.expand(path);
+        HttpRequest.BodyPublisher bodyPublisher;
+        try {
+            bodyPublisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), bodyPublisher);
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(HttpClientExchange::toResponseEntity);
+    }
+
+    private static ResponseEntity<byte[]> toResponseEntity(HttpResponse<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        byte[] body = response.body();
+        return ResponseEntity.status(response.statusCode())
+                .headers(headers)
+                .body(body == null || body.length == 0 ? null : body);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+@ConditionalOnProperty(name = "shareit-server.client", havingValue = "non-blocking")
+public class HttpClientExchangeFactory implements ServerExchangeFactory, DisposableBean {
+    private final ObjectMapper objectMapper;
+    private final Duration readTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    public HttpClientExchangeFactory(ObjectMapper objectMapper,
+                                     @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${shareit-server.http.read-timeout:30s}") Duration readTimeout,
+                                     @Value("${shareit-server.http.io-threads:4}") int ioThreads) {
+        this.objectMapper = objectMapper;
+        this.readTimeout = readTimeout;
+        this.executor = Executors.newFixedThreadPool(ioThreads);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public ServerExchange create(String baseUrl) {
+        return new HttpClientExchange(httpClient, objectMapper, new DefaultUriBuilderFactory(baseUrl), readTimeout);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
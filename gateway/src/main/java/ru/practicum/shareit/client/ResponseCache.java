@@ -0,0 +1,100 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class ResponseCache {
+    private static final String REQUESTS = "shareit.gateway.cache.requests";
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+    private final Map<String, Long> generations = new HashMap<>();
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter misses;
+
+    @Autowired
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${shareit-server.cache.max-size:10000}") int maxSize,
+                         @Value("${shareit-server.cache.ttl:5s}") Duration ttl) {
+        this(meterRegistry, maxSize, ttl, Clock.systemUTC());
+    }
+
+    ResponseCache(MeterRegistry meterRegistry, int maxSize, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter(REQUESTS, "result", "hit");
+        this.revalidations = meterRegistry.counter(REQUESTS, "result", "revalidated");
+        this.misses = meterRegistry.counter(REQUESTS, "result", "miss");
+        Gauge.builder("shareit.gateway.cache.size", this, ResponseCache::size).register(meterRegistry);
+    }
+
+    public synchronized void invalidate(String keyPrefix) {
+        generations.merge(keyPrefix, 1L, Long::sum);
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized Entry find(String key) {
+        return entries.get(key);
+    }
+
+    synchronized long generation(String keyPrefix) {
+        return generations.getOrDefault(keyPrefix, 0L);
+    }
+
+    synchronized void put(String keyPrefix, String key, ResponseEntity<byte[]> response, long expectedGeneration) {
+        if (generation(keyPrefix) == expectedGeneration) {
+            entries.put(key, new Entry(response, response.getHeaders().getETag(), clock.instant().plus(ttl)));
+        }
+    }
+
+    boolean isFresh(Entry entry) {
+        return entry.getExpiresAt().isAfter(clock.instant());
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Entry {
+        private final ResponseEntity<byte[]> response;
+        private final String etag;
+        private final Instant expiresAt;
+    }
+}
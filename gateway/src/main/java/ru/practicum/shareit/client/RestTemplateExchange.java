@@ -0,0 +1,38 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class RestTemplateExchange implements ServerExchange {
+    private final RestTemplate rest;
+
+    public RestTemplateExchange(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                              @Nullable Map<String, Object> parameters,
+                                                              @Nullable Object body) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+        try {
+            if (parameters != null) {
+                return CompletableFuture.completedFuture(
+                        rest.exchange(path, method, requestEntity, byte[].class, parameters));
+            }
+            return CompletableFuture.completedFuture(rest.exchange(path, method, requestEntity, byte[].class));
+        } catch (HttpStatusCodeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(e.getStatusCode())
+                    .headers(e.getResponseHeaders())
+                    .body(e.getResponseBodyAsByteArray()));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit-server.client", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateExchangeFactory implements ServerExchangeFactory {
+    private final RestTemplateBuilder builder;
+    private final ClientHttpRequestFactory requestFactory;
+
+    @Override
+    public ServerExchange create(String baseUrl) {
+        return new RestTemplateExchange(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
+                        .requestFactory(() -> requestFactory)
+                        .build()
+        );
+    }
+}
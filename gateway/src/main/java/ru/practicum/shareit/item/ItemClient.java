@@ -2,32 +2,34 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, ServerExchangeFactory serverExchangeFactory,
+                      ResponseCache responseCache,
+                      RequestCoalescer requestCoalescer) {
+        super(serverExchangeFactory.create(serverUrl + API_PREFIX), responseCache, requestCoalescer, API_PREFIX,
+                Set.of(API_PREFIX, "/bookings", "/requests"));
     }
 
-    public ResponseEntity<Object> findAll(int userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> findAll(int userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -35,32 +37,53 @@ public class ItemClient extends BaseClient {
         return get("/?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findItemById(int itemId, int userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<Object>> findItemById(int itemId, int userId) {
+        return getCached("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> addItem(int userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> addItem(int userId, String idempotencyKey, ItemDto itemDto) {
+        return post("", userId, idempotencyKey, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, int userId, int itemId) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(ItemDto itemDto, int userId, int itemId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(ItemDto itemDto, int userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(ItemDto itemDto, int userId) {
         return delete("/" + itemDto, userId);
     }
 
-    public ResponseEntity<Object> search(String text, int userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public CompletableFuture<ResponseEntity<Object>> search(String text, int userId, int from, int size, String sort,
+                                                            boolean fuzzy, LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
-                "size", size
+                "size", size,
+                "fuzzy", fuzzy
+        ));
+        String path = "/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}";
+        if (sort != null) {
+            parameters.put("sort", sort);
+            path += "&sort={sort}";
+        }
+        if (start != null) {
+            parameters.put("start", start);
+            parameters.put("end", end);
+            path += "&start={start}&end={end}";
+        }
+        return getCached(path, userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(int itemId, int userId, LocalDateTime from,
+                                                                     LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(CommentDto commentDto, int userId, int itemId) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(CommentDto commentDto, int userId, int itemId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
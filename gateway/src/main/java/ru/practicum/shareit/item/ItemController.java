@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -11,9 +12,13 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.util.Create;
 import ru.practicum.shareit.util.Update;
 
+import javax.validation.ValidationException;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/items")
@@ -23,9 +28,10 @@ import java.util.Collections;
 public class ItemController {
     private final ItemClient itemClient;
     private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
     @GetMapping
-    public ResponseEntity<Object> findAll(
+    public CompletableFuture<ResponseEntity<Object>> findAll(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
             @Positive @RequestParam(defaultValue = "10") int size
@@ -35,7 +41,7 @@ public class ItemController {
     }
 
     @GetMapping("{itemId}")
-    public ResponseEntity<Object> findById(
+    public CompletableFuture<ResponseEntity<Object>> findById(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @PathVariable int itemId
     ) {
@@ -44,16 +50,17 @@ public class ItemController {
     }
 
     @PostMapping
-    public ResponseEntity<Object> add(
+    public CompletableFuture<ResponseEntity<Object>> add(
             @Validated({Create.class}) @RequestBody ItemDto itemDto,
-            @RequestHeader(X_SHARER_USER_ID) int userId
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey
     ) {
         log.info("Вызван метод addItem() в ItemController");
-        return itemClient.addItem(userId, itemDto);
+        return itemClient.addItem(userId, idempotencyKey, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(
+    public CompletableFuture<ResponseEntity<Object>> update(
             @Validated({Update.class}) @RequestBody ItemDto itemDto,
             @RequestHeader(X_SHARER_USER_ID) int userId, @PathVariable int itemId
     ) {
@@ -62,32 +69,56 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(
             @Validated @RequestBody ItemDto itemDto,
             @RequestHeader(X_SHARER_USER_ID) int userId
     ) {
         log.info("Вызван метод deleteItem() в ItemController");
-        itemClient.deleteItem(itemDto, userId);
-        return ResponseEntity.ok().build();
+        return itemClient.deleteItem(itemDto, userId).thenApply(response -> ResponseEntity.ok().build());
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @PathVariable int itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("Вызван метод getAvailability() в ItemController");
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Ошибка! Начало периода должно быть раньше его окончания!");
+        }
+        return itemClient.getAvailability(itemId, userId, from, to);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(
+    public CompletableFuture<ResponseEntity<Object>> searchItem(
             @RequestParam String text,
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-            @Positive @RequestParam(defaultValue = "10") int size
+            @Positive @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
     ) {
         log.info("Вызван метод search() в ItemController");
+        if ((start == null) != (end == null)) {
+            throw new ValidationException("Ошибка! Для поиска свободных вещей нужно указать и начало, и окончание!");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidationException("Ошибка! Начало периода должно быть раньше его окончания!");
+        }
         if (text.isBlank()) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         } else {
-            return itemClient.search(text, userId, from, size);
+            return itemClient.search(text, userId, from, size, sort, fuzzy, start, end);
         }
     }
 
     @PostMapping("{itemId}/comment")
-    public ResponseEntity<Object> addComment(
+    public CompletableFuture<ResponseEntity<Object>> addComment(
             @RequestHeader(X_SHARER_USER_ID) int userId,
             @Validated({Create.class}) @RequestBody CommentDto commentDto,
             @PathVariable int itemId
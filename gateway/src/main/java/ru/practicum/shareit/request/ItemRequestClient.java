@@ -2,43 +2,45 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             ServerExchangeFactory serverExchangeFactory,
+                             ResponseCache responseCache,
+                             RequestCoalescer requestCoalescer) {
+        super(serverExchangeFactory.create(serverUrl + API_PREFIX), responseCache, requestCoalescer, API_PREFIX,
+                Set.of(API_PREFIX));
     }
 
-    public ResponseEntity<Object> addItemRequest(int userId, ItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public CompletableFuture<ResponseEntity<Object>> addItemRequest(int userId, String idempotencyKey,
+                                                                    ItemRequestDto requestDto) {
+        return post("", userId, idempotencyKey, requestDto);
     }
 
-    public ResponseEntity<Object> findItemRequestByOwner(int userId) {
+    public CompletableFuture<ResponseEntity<Object>> findItemRequestByOwner(int userId) {
         return get("/", userId);
     }
 
-    public ResponseEntity<Object> findRequestById(int userId, int requestId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> findRequestById(int userId, int requestId) {
+        return getCached("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> findAllRequests(int userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> findAllRequests(int userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
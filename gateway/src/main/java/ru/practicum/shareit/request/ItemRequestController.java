@@ -10,6 +10,9 @@ import ru.practicum.shareit.util.Create;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Slf4j
@@ -19,25 +22,27 @@ import javax.validation.constraints.PositiveOrZero;
 public class ItemRequestController {
 
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(
+    public CompletableFuture<ResponseEntity<Object>> createItemRequest(
             @RequestHeader(HEADER_USER_ID) int userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
             @Validated({Create.class}) @RequestBody ItemRequestDto requestDto
     ) {
         log.info("Вызван метод addItemRequest() в ItemRequestController");
-        return itemRequestClient.addItemRequest(userId, requestDto);
+        return itemRequestClient.addItemRequest(userId, idempotencyKey, requestDto);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getByOwner(@RequestHeader(HEADER_USER_ID) int userId) {
+    public CompletableFuture<ResponseEntity<Object>> getByOwner(@RequestHeader(HEADER_USER_ID) int userId) {
         log.info("Вызван метод findItemRequestByOwner() в ItemRequestController");
         return itemRequestClient.findItemRequestByOwner(userId);
     }
 
     @GetMapping("{requestId}")
-    public ResponseEntity<Object> getRequestById(
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(
             @RequestHeader(HEADER_USER_ID) int userId,
             @PathVariable int requestId
     ) {
@@ -46,7 +51,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequest(
+    public CompletableFuture<ResponseEntity<Object>> getAllRequest(
             @RequestHeader(HEADER_USER_ID) int userId,
             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") int from,
             @Positive @RequestParam(name = "size", defaultValue = "10") int size
@@ -2,45 +2,46 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, ServerExchangeFactory serverExchangeFactory,
+                      ResponseCache responseCache,
+                      RequestCoalescer requestCoalescer) {
+        super(serverExchangeFactory.create(serverUrl + API_PREFIX), responseCache, requestCoalescer, API_PREFIX,
+                Set.of(API_PREFIX, "/items", "/bookings", "/requests"));
     }
 
-    public ResponseEntity<Object> findAll() {
+    public CompletableFuture<ResponseEntity<Object>> findAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> findById(int userId) {
-        return get("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> findById(int userId) {
+        return getCached("/" + userId, null);
     }
 
-    public ResponseEntity<Object> addUser(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> addUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(UserDto userDto, int userId) {
+    public CompletableFuture<ResponseEntity<Object>> updateUser(UserDto userDto, int userId) {
         return patch("/" + userId, userDto);
     }
 
-    public void deleteUser(int userId) {
-        delete("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(int userId) {
+        return delete("/" + userId);
     }
 }
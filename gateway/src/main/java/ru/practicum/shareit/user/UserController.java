@@ -9,6 +9,8 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.util.Create;
 import ru.practicum.shareit.util.Update;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -17,19 +19,19 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
+    public CompletableFuture<ResponseEntity<Object>> findAll() {
         log.info("Вызван метод findAll() в UserController");
         return userClient.findAll();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findById(@PathVariable int userId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@PathVariable int userId) {
         log.info("Вызван метод findById() в UserController");
         return userClient.findById(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> addUser(
+    public CompletableFuture<ResponseEntity<Object>> addUser(
             @Validated({Create.class})
             @RequestBody UserDto user
     ) {
@@ -38,7 +40,7 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(
+    public CompletableFuture<ResponseEntity<Object>> updateUser(
             @Validated({Update.class})
             @RequestBody UserDto user,
             @PathVariable int userId
@@ -48,9 +50,8 @@ public class UserController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable int userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(@PathVariable int userId) {
         log.info("Вызван метод deleteUser() в UserController");
-        userClient.deleteUser(userId);
-        return ResponseEntity.ok().build();
+        return userClient.deleteUser(userId).thenApply(response -> ResponseEntity.ok().build());
     }
 }
@@ -0,0 +1,323 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+
+    private final byte[] body = "[{\"id\":1,\"status\":\"WAITING\"}]".getBytes(StandardCharsets.UTF_8);
+    private final MutableClock clock = new MutableClock();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockRestServiceServer server;
+    private TestClient client;
+    private TestClient cachingClient;
+
+    @BeforeEach
+    void beforeEach() {
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(new RestTemplateExchange(rest));
+        cachingClient = new TestClient(new RestTemplateExchange(rest),
+                new ResponseCache(meterRegistry, 100, Duration.ofSeconds(5), clock));
+    }
+
+    @Test
+    void getPassesServerBytesAndHeadersThrough() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Next-Cursor", "abc");
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        server.expect(requestTo("/bookings?state=ALL"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = client.get("/bookings?state={state}", 1, Map.of("state", "ALL")).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(body, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("abc", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+        server.verify();
+    }
+
+    @Test
+    void errorResponsePassesServerBytesAndContentTypeThrough() {
+        byte[] error = "{\"error\":\"Unknown state\"}".getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo("/bookings/1"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Object> response = client.get("/bookings/1", 1).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(error, (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void emptyResponseHasNoBody() {
+        server.expect(requestTo("/users/1")).andRespond(withSuccess());
+
+        ResponseEntity<Object> response = client.delete("/users/1").join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void cachedGetIsServedWithoutServerUntilTtlExpiresAndThenRevalidated() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v1\"");
+        server.expect(requestTo("/items/1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        cachingClient.getCached("/items/1", 1).join();
+        ResponseEntity<Object> hit = cachingClient.getCached("/items/1", 1).join();
+        clock.advance(Duration.ofSeconds(6));
+        ResponseEntity<Object> revalidated = cachingClient.getCached("/items/1", 1).join();
+
+        assertEquals(HttpStatus.OK, hit.getStatusCode());
+        assertArrayEquals(body, (byte[]) hit.getBody());
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertArrayEquals(body, (byte[]) revalidated.getBody());
+        assertEquals("\"v1\"", revalidated.getHeaders().getETag());
+        assertEquals(1, requests("miss"));
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("revalidated"));
+        server.verify();
+    }
+
+    @Test
+    void cachedGetIsKeyedByUser() {
+        server.expect(requestTo("/items/1")).andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/items/1")).andExpect(header("X-Sharer-User-Id", "2"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        cachingClient.getCached("/items/1", 1).join();
+        cachingClient.getCached("/items/1", 2).join();
+
+        assertEquals(2, requests("miss"));
+        server.verify();
+    }
+
+    @Test
+    void writeInvalidatesCachedResponses() {
+        server.expect(requestTo("/items/1")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/items/1")).andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/items/1")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        cachingClient.getCached("/items/1", 1).join();
+        cachingClient.patch("/items/1", 1, Map.of("name", "new")).join();
+        cachingClient.getCached("/items/1", 1).join();
+
+        assertEquals(2, requests("miss"));
+        server.verify();
+    }
+
+    @Test
+    void writeInvalidatesOnlyResponsesOfAffectedResources() {
+        ResponseCache responseCache = new ResponseCache(meterRegistry, 100, Duration.ofSeconds(5), clock);
+        RestTemplate rest = new RestTemplate();
+        MockRestServiceServer resourceServer = MockRestServiceServer.bindTo(rest).build();
+        RestTemplateExchange exchange = new RestTemplateExchange(rest);
+        TestClient users = new TestClient(exchange, responseCache, "/users", Set.of("/users"));
+        TestClient items = new TestClient(exchange, responseCache, "/items", Set.of("/items"));
+        TestClient bookings = new TestClient(exchange, responseCache, "/bookings", Set.of("/bookings", "/items"));
+        resourceServer.expect(requestTo("/1")).andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        resourceServer.expect(requestTo("/1")).andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        resourceServer.expect(requestTo("")).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        resourceServer.expect(requestTo("/1")).andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        users.getCached("/1", 1).join();
+        items.getCached("/1", 1).join();
+        bookings.post("", 1, Map.of("itemId", 1)).join();
+        users.getCached("/1", 1).join();
+        items.getCached("/1", 1).join();
+
+        assertEquals(1, requests("hit"));
+        assertEquals(3, requests("miss"));
+        resourceServer.verify();
+    }
+
+    @Test
+    void errorResponseIsNotCached() {
+        server.expect(requestTo("/items/1")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+        server.expect(requestTo("/items/1")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        cachingClient.getCached("/items/1", 1).join();
+        ResponseEntity<Object> response = cachingClient.getCached("/items/1", 1).join();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        server.verify();
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneServerCall() {
+        PendingExchange exchange = new PendingExchange();
+        TestClient coalescingClient = new TestClient(exchange, null, new RequestCoalescer(meterRegistry));
+
+        CompletableFuture<ResponseEntity<Object>> first = coalescingClient.get("/items/search?text={text}", 1,
+                Map.of("text", "дрель"));
+        CompletableFuture<ResponseEntity<Object>> second = coalescingClient.get("/items/search?text={text}", 1,
+                Map.of("text", "дрель"));
+        CompletableFuture<ResponseEntity<Object>> otherUser = coalescingClient.get("/items/search?text={text}", 2,
+                Map.of("text", "дрель"));
+        exchange.completeAll(ResponseEntity.ok(body));
+
+        assertEquals(2, exchange.calls.size());
+        assertArrayEquals(body, (byte[]) first.join().getBody());
+        assertArrayEquals(body, (byte[]) second.join().getBody());
+        assertArrayEquals(body, (byte[]) otherUser.join().getBody());
+        assertEquals(1, meterRegistry.counter("shareit.gateway.requests.coalesced").count());
+    }
+
+    @Test
+    void getAfterCompletedGetCallsServerAgain() {
+        PendingExchange exchange = new PendingExchange();
+        TestClient coalescingClient = new TestClient(exchange, null, new RequestCoalescer(meterRegistry));
+
+        CompletableFuture<ResponseEntity<Object>> first = coalescingClient.get("/items/1", 1);
+        exchange.completeAll(ResponseEntity.ok(body));
+        CompletableFuture<ResponseEntity<Object>> second = coalescingClient.get("/items/1", 1);
+        exchange.completeAll(ResponseEntity.ok(body));
+
+        assertEquals(2, exchange.calls.size());
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(0, meterRegistry.counter("shareit.gateway.requests.coalesced").count());
+    }
+
+    @Test
+    void getAfterWriteDoesNotJoinEarlierGet() {
+        PendingExchange exchange = new PendingExchange();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(meterRegistry);
+        TestClient coalescingClient = new TestClient(exchange, null, requestCoalescer);
+
+        CompletableFuture<ResponseEntity<Object>> before = coalescingClient.get("/items/1", 1);
+        coalescingClient.patch("/items/1", 1, Map.of("name", "new"));
+        CompletableFuture<ResponseEntity<Object>> after = coalescingClient.get("/items/1", 1);
+
+        assertEquals(3, exchange.calls.size());
+        assertNotSame(before, after);
+        exchange.completeAll(ResponseEntity.ok(body));
+        assertEquals(0, requestCoalescer.inFlight());
+    }
+
+    @Test
+    void failedGetIsPropagatedToAllWaiters() {
+        PendingExchange exchange = new PendingExchange();
+        TestClient coalescingClient = new TestClient(exchange, null, new RequestCoalescer(meterRegistry));
+
+        CompletableFuture<ResponseEntity<Object>> first = coalescingClient.get("/items/1", 1);
+        CompletableFuture<ResponseEntity<Object>> second = coalescingClient.get("/items/1", 1);
+        exchange.calls.get(0).completeExceptionally(new IllegalStateException("connection refused"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("shareit.gateway.cache.requests", "result", result).count();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(ServerExchange serverExchange) {
+            super(serverExchange);
+        }
+
+        TestClient(ServerExchange serverExchange, ResponseCache responseCache) {
+            super(serverExchange, responseCache, null, "", Set.of(""));
+        }
+
+        TestClient(ServerExchange serverExchange, ResponseCache responseCache, RequestCoalescer requestCoalescer) {
+            super(serverExchange, responseCache, requestCoalescer, "", Set.of(""));
+        }
+
+        TestClient(ServerExchange serverExchange, ResponseCache responseCache, String requestKeyPrefix,
+                   Set<String> invalidatedKeyPrefixes) {
+            super(serverExchange, responseCache, null, requestKeyPrefix, invalidatedKeyPrefixes);
+        }
+    }
+
+    private static class PendingExchange implements ServerExchange {
+        private final List<CompletableFuture<ResponseEntity<byte[]>>> calls = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<ResponseEntity<byte[]>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                                  Map<String, Object> parameters, Object body) {
+            CompletableFuture<ResponseEntity<byte[]>> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        void completeAll(ResponseEntity<byte[]> response) {
+            calls.forEach(call -> call.complete(response));
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2022-12-12T12:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
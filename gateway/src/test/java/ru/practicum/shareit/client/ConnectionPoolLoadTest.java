@@ -0,0 +1,122 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+class ConnectionPoolLoadTest {
+    private static final int THREADS = 64;
+    private static final int REQUESTS_PER_THREAD = 20;
+    private static final long SERVER_LATENCY_MS = 20;
+
+    private final HttpClientConfig httpClientConfig = new HttpClientConfig();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(THREADS);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), THREADS);
+        server.setExecutor(serverExecutor);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(SERVER_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void throughputScalesWithPoolSize() throws Exception {
+        double smallPool = measure(2);
+        measure(16);
+        double largePool = measure(64);
+
+        assertTrue(largePool > smallPool * 4,
+                "Пул из 64 соединений: " + largePool + " запросов/с, пул из 2 соединений: " + smallPool);
+    }
+
+    private double measure(int poolSize) throws Exception {
+        PoolingHttpClientConnectionManager connectionManager = httpClientConfig.connectionManager(poolSize, poolSize);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        httpClientConfig.connectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+        try (CloseableHttpClient httpClient = httpClientConfig.httpClient(connectionManager, Duration.ofSeconds(30),
+                Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofSeconds(30))) {
+            TestClient client = new TestClient(new RestTemplateExchange(new RestTemplateBuilder()
+                    .uriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort()))
+                    .requestFactory(() -> httpClientConfig.clientHttpRequestFactory(httpClient))
+                    .build()));
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                        assertEquals(200, client.call().join().getStatusCodeValue());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            executor.shutdown();
+            double throughput = THREADS * REQUESTS_PER_THREAD / seconds;
+            log.info("Пул из {} соединений: {} запросов/с, открыто соединений: {}", poolSize, Math.round(throughput),
+                    meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                            .tag("state", "available").gauge().value());
+            return throughput;
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(ServerExchange serverExchange) {
+            super(serverExchange);
+        }
+
+        CompletableFuture<ResponseEntity<Object>> call() {
+            return get("");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HttpClientExchangeTest {
+
+    private final AtomicReference<String> requestLine = new AtomicReference<>();
+    private final AtomicReference<String> requestUserId = new AtomicReference<>();
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+    private HttpServer server;
+    private HttpClientExchange httpClientExchange;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestLine.set(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            requestUserId.set(exchange.getRequestHeaders().getFirst("X-Sharer-User-Id"));
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            if (exchange.getRequestURI().getPath().endsWith("/empty")) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("X-Next-Cursor", "abc");
+            exchange.sendResponseHeaders(201, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        httpClientExchange = new HttpClientExchange(HttpClient.newHttpClient(), new ObjectMapper(),
+                new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort() + "/bookings"),
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.stop(0);
+    }
+
+    @Test
+    void exchangeSendsSerializedBodyAndReturnsServerResponse() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Sharer-User-Id", "1");
+
+        ResponseEntity<byte[]> response = httpClientExchange.exchange(HttpMethod.POST, "?state={state}", headers,
+                Map.of("state", "ALL"), Map.of("itemId", 2)).join();
+
+        assertEquals("POST /bookings?state=ALL", requestLine.get());
+        assertEquals("1", requestUserId.get());
+        assertEquals("{\"itemId\":2}", requestBody.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("abc", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), response.getBody());
+    }
+
+    @Test
+    void exchangeReturnsNoBodyForEmptyResponse() {
+        ResponseEntity<byte[]> response = httpClientExchange.exchange(HttpMethod.DELETE, "/empty", new HttpHeaders(),
+                null, null).join();
+
+        assertEquals("DELETE /bookings/empty", requestLine.get());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+}
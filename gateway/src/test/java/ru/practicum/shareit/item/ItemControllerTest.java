@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemController.class)
+class ItemControllerTest {
+
+    private final byte[] body = "{\"id\":1,\"name\":\"Дрель\"}".getBytes(StandardCharsets.UTF_8);
+    @MockBean
+    ItemClient itemClient;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void findByIdWithMatchingEtagReturnsNotModified() throws Exception {
+        when(itemClient.findItemById(1, 1)).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                ResponseEntity.ok().eTag("\"v1\"").contentType(MediaType.APPLICATION_JSON).body((Object) body)));
+
+        MvcResult result = mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", "\"v1\""))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void searchWithMatchingServerEtagReturnsNotModified() throws Exception {
+        when(itemClient.search("дрель", 1, 0, 10, null, false, null, null)).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(ResponseEntity.ok().eTag("\"v1\"")
+                        .contentType(MediaType.APPLICATION_JSON).body((Object) body)));
+
+        MvcResult result = mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", "\"v1\"")
+                        .param("text", "дрель"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void findByIdWithOtherEtagReturnsBody() throws Exception {
+        when(itemClient.findItemById(1, 1)).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                ResponseEntity.ok().eTag("\"v2\"").contentType(MediaType.APPLICATION_JSON).body((Object) body)));
+
+        MvcResult result = mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", "\"v1\""))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""))
+                .andExpect(content().bytes(body));
+    }
+}
@@ -2,7 +2,11 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingApproveRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -17,6 +21,7 @@ public class BookingController {
 
     private final BookingService bookingService;
     private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+    private static final String X_NEXT_CURSOR = "X-Next-Cursor";
 
     @PostMapping
     public BookingResponseDto createBooking(
@@ -37,6 +42,16 @@ public class BookingController {
         return bookingService.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/approve")
+    public List<BookingApproveResultDto> approveBookings(
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @RequestBody BookingApproveRequestDto bookingApproveRequestDto
+    ) {
+        log.info("Вызван метод approveBookings() в BookingController");
+        return bookingService.approveBookings(userId, bookingApproveRequestDto.getBookingIds(),
+                bookingApproveRequestDto.isApproved());
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBookingById(
             @RequestHeader(X_SHARER_USER_ID) int userId,
@@ -69,4 +84,38 @@ public class BookingController {
         log.info("Вызван метод findBookingByOwner() в BookingController");
         return bookingService.findBookingByOwner(userId, state, from, size);
     }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingResponseDto>> getByUserAfterCursor(
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @RequestParam(value = "state", defaultValue = "ALL")
+            String state,
+            @RequestParam(name = "cursor") String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        log.info("Вызван метод findBookingByUser() с курсором в BookingController");
+        return withNextCursor(bookingService.findBookingByUser(userId, state, BookingCursor.decode(cursor), size),
+                size);
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingResponseDto>> getByOwnerAfterCursor(
+            @RequestHeader(X_SHARER_USER_ID) int userId,
+            @RequestParam(value = "state", defaultValue = "ALL")
+            String state,
+            @RequestParam(name = "cursor") String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size
+    ) {
+        log.info("Вызван метод findBookingByOwner() с курсором в BookingController");
+        return withNextCursor(bookingService.findBookingByOwner(userId, state, BookingCursor.decode(cursor), size),
+                size);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            response.header(X_NEXT_CURSOR, BookingCursor.after(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
+    }
 }
@@ -2,6 +2,8 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.user.dto.UserMapper;
 
 import static java.util.Objects.isNull;
 
@@ -31,8 +33,8 @@ public class BookingMapper {
                 booking.getStart(),
                 booking.getEnd(),
                 booking.getStatus(),
-                booking.getBooker(),
-                booking.getItem()
+                UserMapper.toUserDto(booking.getBooker()),
+                ItemMapper.toItemDto(booking.getItem())
         );
     }
 }
@@ -3,8 +3,8 @@ package ru.practicum.shareit.booking.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 
@@ -15,6 +15,14 @@ public class BookingResponseDto {
     private LocalDateTime start;
     private LocalDateTime end;
     private BookingStatus status;
-    private User booker;
-    private Item item;
+    private UserDto booker;
+    private ItemDto item;
+
+    public BookingResponseDto(int id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              int bookerId, String bookerName, String bookerEmail,
+                              int itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              Integer itemRequestId) {
+        this(id, start, end, status, new UserDto(bookerId, bookerName, bookerEmail),
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemRequestId));
+    }
 }
@@ -2,57 +2,147 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
-
-    List<Booking> findAllByBookerIdOrderByStartDesc(int id, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(int userId,
-                                                                                 LocalDateTime nowStart,
-                                                                                 LocalDateTime nowEnd);
-
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(int userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(int userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(int userId, BookingStatus status, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
-            "b.start <= ?2 and b.end >= ?3 order by b.start desc")
-    List<Booking> findAllCurrentByItemsOwnerId(int userId, LocalDateTime nowStart, LocalDateTime nowEnd, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
-            "b.end <= ?2 order by b.start desc")
-    List<Booking> findAllPastByItemsOwnerId(int userId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
-            "b.start >= ?2 order by b.start desc")
-    List<Booking> findAllFutureByItemsOwnerId(int userId, LocalDateTime now, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
+    String RESPONSE = "select new ru.practicum.shareit.booking.dto.BookingResponseDto(b.id, b.start, b.end, " +
+            "b.status, bk.id, bk.name, bk.email, i.id, i.name, i.description, i.available, r.id) " +
+            "from Booking b join b.booker bk join b.item i left join i.request r ";
+    String SEEK = " and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))" +
+            " order by b.start desc, b.id desc";
+    String ACTIVE_STATUSES = "(ru.practicum.shareit.booking.model.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.model.BookingStatus.APPROVED)";
+
+    @Query(RESPONSE + "where bk.id = ?1 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdOrderByStartDesc(int id, Pageable pageable);
+
+    @Query(RESPONSE + "where bk.id = ?1 and b.phase = ?2 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndPhaseOrderByStartDesc(int userId, BookingPhase phase,
+                                                                       Pageable pageable);
+
+    @Query(RESPONSE + "where bk.id = ?1 and b.status = ?2 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndStatusOrderByStartDesc(int userId, BookingStatus status,
+                                                                        Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and " +
+            "b.phase = ?2 order by b.start desc")
+    List<BookingResponseDto> findAllPhaseByItemsOwnerId(int userId, BookingPhase phase, Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and " +
             "b.status = ?2 order by b.start desc")
-    List<Booking> findAllStatusByItemsOwnerId(int userId, BookingStatus status, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.id = ?1")
-    List<Booking> findAllByItemsId(int itemId);
-
-    @Query("select b from Booking b where b.item.owner.id = ?1 order by b.start desc")
-    List<Booking> findAllByItemsOwnerId(int userId, Pageable pageable);
-
-    @Query("select b from Booking b where b.item.id = ?1 and " +
-            "b.item.owner.id = ?2 and b.start <= ?3 order by b.end desc ")
-    List<Booking> findLastBookingByItemId(int itemId, int userId, LocalDateTime now);
-
-    @Query("select b from Booking b where b.item.id = ?1 and " +
-            "b.item.owner.id = ?2 and b.start >= ?3 order by b.start asc")
-    List<Booking> findNextBookingByItemId(int itemId, int userId, LocalDateTime now);
+    List<BookingResponseDto> findAllStatusByItemsOwnerId(int userId, BookingStatus status, Pageable pageable);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndIsAfter(int itemId, Collection<BookingStatus> statuses,
+                                                          LocalDateTime now);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 order by b.start desc")
+    List<BookingResponseDto> findAllByItemsOwnerId(int userId, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.booker where b.item.id in ?1 and b.start <= ?2 and " +
+            "b.status in " + ACTIVE_STATUSES + " and b.end = (select max(l.end) from Booking l " +
+            "where l.item.id = b.item.id and l.start <= ?2 and l.status in " + ACTIVE_STATUSES + ") " +
+            "order by b.id")
+    List<Booking> findLastBookingsByItemIds(Collection<Integer> itemIds, LocalDateTime now);
+
+    @Query("select b from Booking b join fetch b.booker where b.item.id in ?1 and " +
+            "b.status in " + ACTIVE_STATUSES + " and b.start = (select min(n.start) from Booking n " +
+            "where n.item.id = b.item.id and n.start >= ?2 and n.status in " + ACTIVE_STATUSES + ") " +
+            "order by b.id")
+    List<Booking> findNextBookingsByItemIds(Collection<Integer> itemIds, LocalDateTime now);
+
+    List<Booking> findAllByPhaseNot(BookingPhase phase);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = :phase where b.id in :ids and b.phase in :expected")
+    int updatePhase(@Param("ids") Collection<Integer> ids, @Param("expected") Collection<BookingPhase> expected,
+                    @Param("phase") BookingPhase phase);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.PAST " +
+            "where b.phase <> ru.practicum.shareit.booking.model.BookingPhase.PAST and b.end <= ?1")
+    int updatePhaseOfEnded(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.CURRENT " +
+            "where b.phase = ru.practicum.shareit.booking.model.BookingPhase.FUTURE and b.start <= ?1")
+    int updatePhaseOfStarted(LocalDateTime now);
+
+    @Query("select b from Booking b join fetch b.item where b.id in ?1")
+    List<Booking> findAllWithItemByIdIn(Collection<Integer> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.status = ?1 and b.start <= ?2 order by b.id")
+    List<Booking> findAllByStatusAndStartBeforeForUpdate(BookingStatus status, LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = :expected")
+    int updateStatus(@Param("ids") Collection<Integer> ids, @Param("expected") BookingStatus expected,
+                     @Param("status") BookingStatus status);
+
+    @Query("select distinct b.item.id from Booking b where b.status = ?1 and b.start < ?3 and b.end > ?2")
+    List<Integer> findItemIdsBookedBetween(BookingStatus status, LocalDateTime start, LocalDateTime end);
+
+    @Query("select distinct b.item.id from Booking b where b.booker.id = ?1")
+    List<Integer> findItemIdsByBookerId(int bookerId);
 
     @Query("select (count(b) > 0) from Booking b where b.item.id = ?1 and b.booker.id = ?2 and b.end < ?3")
     boolean existsByItemIdAndBookerIdAndEndBefore(int itemId, int userId, LocalDateTime now);
+
+    @Query(RESPONSE + "where bk.id = :userId" + SEEK)
+    List<BookingResponseDto> findSeekByBookerId(@Param("userId") int userId,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") int cursorId,
+                                                Pageable pageable);
+
+    @Query(RESPONSE + "where bk.id = :userId and b.phase = :phase" + SEEK)
+    List<BookingResponseDto> findSeekPhaseByBookerId(@Param("userId") int userId,
+                                                     @Param("phase") BookingPhase phase,
+                                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                                     @Param("cursorId") int cursorId,
+                                                     Pageable pageable);
+
+    @Query(RESPONSE + "where bk.id = :userId and b.status = :status" + SEEK)
+    List<BookingResponseDto> findSeekStatusByBookerId(@Param("userId") int userId,
+                                                      @Param("status") BookingStatus status,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") int cursorId,
+                                                      Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = :userId" + SEEK)
+    List<BookingResponseDto> findSeekByItemsOwnerId(@Param("userId") int userId,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") int cursorId,
+                                                    Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = :userId and b.phase = :phase" + SEEK)
+    List<BookingResponseDto> findSeekPhaseByItemsOwnerId(@Param("userId") int userId,
+                                                         @Param("phase") BookingPhase phase,
+                                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                                         @Param("cursorId") int cursorId,
+                                                         Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = :userId and b.status = :status" + SEEK)
+    List<BookingResponseDto> findSeekStatusByItemsOwnerId(@Param("userId") int userId,
+                                                          @Param("status") BookingStatus status,
+                                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                                          @Param("cursorId") int cursorId,
+                                                          Pageable pageable);
 }
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ResourceVersion;
+import ru.practicum.shareit.item.service.ItemBookingIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking-expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingExpiryJob {
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingIndex itemBookingIndex;
+    private final ResourceVersion resourceVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final DistributionSummary expiredPerRun;
+    private final Timer runDuration;
+
+    public BookingExpiryJob(BookingRepository bookingRepository, BookingIntervalIndex bookingIntervalIndex,
+                            ItemBookingIndex itemBookingIndex, ResourceVersion resourceVersion, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${shareit.booking-expiry.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemBookingIndex = itemBookingIndex;
+        this.resourceVersion = resourceVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.expiredPerRun = meterRegistry.summary("shareit.booking.expiry.expired");
+        this.runDuration = meterRegistry.timer("shareit.booking.expiry.duration");
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking-expiry.interval:60000}",
+            fixedDelayString = "${shareit.booking-expiry.interval:60000}")
+    public void expire() {
+        expire(LocalDateTime.now());
+    }
+
+    int expire(LocalDateTime now) {
+        int expired = runDuration.record(() -> {
+            int total = 0;
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> expireBatch(now));
+                total += batch;
+            } while (batch == batchSize);
+            return total;
+        });
+        expiredPerRun.record(expired);
+        if (expired > 0) {
+            resourceVersion.increment();
+            log.info("Бронирования ({}) в статусе WAITING с наступившей датой начала переведены в EXPIRED " +
+                    "(expire())", expired);
+        }
+        return expired;
+    }
+
+    private int expireBatch(LocalDateTime now) {
+        List<Booking> bookings = bookingRepository.findAllByStatusAndStartBeforeForUpdate(BookingStatus.WAITING, now,
+                PageRequest.of(0, batchSize));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        bookingRepository.updateStatus(bookings.stream().map(Booking::getId).collect(Collectors.toList()),
+                BookingStatus.WAITING, BookingStatus.EXPIRED);
+        bookings.forEach(booking -> {
+            bookingIntervalIndex.release(booking);
+            itemBookingIndex.remove(booking.getItem().getId());
+        });
+        return bookings.size();
+    }
+}
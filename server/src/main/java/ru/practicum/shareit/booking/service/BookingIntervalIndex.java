@@ -0,0 +1,271 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+    private static final int HORIZON_DAYS = 366;
+    private static final Comparator<BookedInterval> BY_START = Comparator.comparing(BookedInterval::getStart)
+            .thenComparingInt(BookedInterval::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Integer, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+    private final Map<Integer, BusyHours> busyHoursByItem = new ConcurrentHashMap<>();
+
+    public void reserve(Booking booking) {
+        int itemId = booking.getItem().getId();
+        BookedInterval interval = BookedInterval.of(booking);
+        ItemIntervals intervals = getIntervals(itemId);
+        synchronized (intervals) {
+            checkConflict(intervals, interval);
+            intervals.add(interval);
+            busyHoursByItem.remove(itemId);
+        }
+        afterRollback(() -> remove(itemId, interval));
+    }
+
+    public void checkApprove(Booking booking) {
+        ItemIntervals intervals = getIntervals(booking.getItem().getId());
+        synchronized (intervals) {
+            checkConflict(intervals, BookedInterval.of(booking));
+        }
+    }
+
+    public void release(Booking booking) {
+        int itemId = booking.getItem().getId();
+        BookedInterval interval = BookedInterval.of(booking);
+        if (remove(itemId, interval)) {
+            afterRollback(() -> add(itemId, interval));
+        }
+    }
+
+    public void evict(int itemId) {
+        Runnable eviction = () -> {
+            intervalsByItem.remove(itemId);
+            busyHoursByItem.remove(itemId);
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    public List<AvailabilitySlotDto> findSlots(int itemId, LocalDateTime from, LocalDateTime to) {
+        ItemIntervals intervals = getIntervals(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        BusyHours busyHours;
+        synchronized (intervals) {
+            busyHours = busyHoursByItem.computeIfAbsent(itemId, id -> {
+                LocalDateTime origin = now.truncatedTo(ChronoUnit.HOURS);
+                return BusyHours.of(intervals.all(), origin, origin.plusDays(HORIZON_DAYS));
+            });
+            if (busyHours.getUntil().isBefore(to)) {
+                busyHours = BusyHours.of(intervals.all(), (from.isBefore(now) ? now : from)
+                        .truncatedTo(ChronoUnit.HOURS), to);
+            }
+        }
+        return busyHours.slots(from, to);
+    }
+
+    private void checkConflict(ItemIntervals intervals, BookedInterval interval) {
+        BookedInterval conflict = intervals.findConflict(interval);
+        if (conflict != null) {
+            throw new ValidateException(String.format("Ошибка! Вещь id=%d уже забронирована с %s по %s " +
+                    "(бронирование id=%d)!", interval.getItemId(), conflict.getStart(), conflict.getEnd(),
+                    conflict.getBookingId()));
+        }
+    }
+
+    private ItemIntervals getIntervals(int itemId) {
+        ItemIntervals intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (intervals) {
+            intervals.removeEndedBefore(now);
+        }
+        return intervals;
+    }
+
+    private ItemIntervals load(int itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(itemId, BLOCKING_STATUSES, LocalDateTime.now())
+                .forEach(booking -> intervals.add(BookedInterval.of(booking)));
+        return intervals;
+    }
+
+    private void add(int itemId, BookedInterval interval) {
+        ItemIntervals intervals = getIntervals(itemId);
+        synchronized (intervals) {
+            intervals.add(interval);
+            busyHoursByItem.remove(itemId);
+        }
+    }
+
+    private boolean remove(int itemId, BookedInterval interval) {
+        ItemIntervals intervals = getIntervals(itemId);
+        synchronized (intervals) {
+            busyHoursByItem.remove(itemId);
+            return intervals.remove(interval);
+        }
+    }
+
+    private void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private static class ItemIntervals {
+        private final NavigableSet<BookedInterval> intervals = new TreeSet<>(BY_START);
+        private final List<BookedInterval> overlapping = new ArrayList<>();
+
+        void add(BookedInterval interval) {
+            if (findPredecessorConflict(interval) == null) {
+                intervals.add(interval);
+            } else {
+                overlapping.add(interval);
+            }
+        }
+
+        boolean remove(BookedInterval interval) {
+            return intervals.remove(interval) || overlapping.remove(interval);
+        }
+
+        void removeEndedBefore(LocalDateTime now) {
+            while (!intervals.isEmpty() && !intervals.first().getEnd().isAfter(now)) {
+                intervals.pollFirst();
+            }
+            overlapping.removeIf(interval -> !interval.getEnd().isAfter(now));
+        }
+
+        BookedInterval findConflict(BookedInterval interval) {
+            BookedInterval conflict = findPredecessorConflict(interval);
+            if (conflict != null) {
+                return conflict;
+            }
+            for (BookedInterval candidate : overlapping) {
+                if (candidate.getBookingId() != interval.getBookingId() && candidate.overlaps(interval)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        List<BookedInterval> all() {
+            List<BookedInterval> all = new ArrayList<>(intervals);
+            all.addAll(overlapping);
+            return all;
+        }
+
+        private BookedInterval findPredecessorConflict(BookedInterval interval) {
+            BookedInterval candidate = intervals.lower(new BookedInterval(Integer.MIN_VALUE, interval.getItemId(),
+                    interval.getEnd(), interval.getEnd()));
+            while (candidate != null && candidate.getBookingId() == interval.getBookingId()) {
+                candidate = intervals.lower(candidate);
+            }
+            return candidate != null && candidate.overlaps(interval) ? candidate : null;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class BusyHours {
+        private final LocalDateTime origin;
+        private final LocalDateTime until;
+        private final BitSet hours;
+
+        static BusyHours of(Collection<BookedInterval> intervals, LocalDateTime origin, LocalDateTime until) {
+            BitSet hours = new BitSet();
+            for (BookedInterval interval : intervals) {
+                if (interval.getStart().isBefore(until) && interval.getEnd().isAfter(origin)) {
+                    int from = floorHour(origin, interval.getStart().isAfter(origin) ? interval.getStart() : origin);
+                    int to = ceilHour(origin, interval.getEnd().isBefore(until) ? interval.getEnd() : until);
+                    if (from < to) {
+                        hours.set(from, to);
+                    }
+                }
+            }
+            return new BusyHours(origin, until, hours);
+        }
+
+        List<AvailabilitySlotDto> slots(LocalDateTime from, LocalDateTime to) {
+            LocalDateTime now = LocalDateTime.now();
+            int first = floorHour(origin, from.isBefore(now) ? now : from);
+            int last = ceilHour(origin, to);
+            List<AvailabilitySlotDto> slots = new ArrayList<>();
+            for (int hour = first; hour < last; ) {
+                boolean busy = hours.get(hour);
+                int next = busy ? hours.nextClearBit(hour) : hours.nextSetBit(hour);
+                if (next < 0 || next > last) {
+                    next = last;
+                }
+                slots.add(new AvailabilitySlotDto(origin.plusHours(hour), origin.plusHours(next), !busy));
+                hour = next;
+            }
+            return slots;
+        }
+
+        private static int floorHour(LocalDateTime origin, LocalDateTime time) {
+            return (int) ChronoUnit.HOURS.between(origin, time);
+        }
+
+        private static int ceilHour(LocalDateTime origin, LocalDateTime time) {
+            int hour = floorHour(origin, time);
+            return origin.plusHours(hour).isBefore(time) ? hour + 1 : hour;
+        }
+    }
+
+    @Value
+    private static class BookedInterval {
+        int bookingId;
+        int itemId;
+        LocalDateTime start;
+        LocalDateTime end;
+
+        boolean overlaps(BookedInterval other) {
+            return start.isBefore(other.getEnd()) && end.isAfter(other.getStart());
+        }
+
+        static BookedInterval of(Booking booking) {
+            return new BookedInterval(booking.getId(), booking.getItem().getId(), booking.getStart(),
+                    booking.getEnd());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ResourceVersion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingPhaseScheduler {
+    private static final int BATCH_SIZE = 1000;
+    private static final Map<BookingPhase, List<BookingPhase>> PRIOR_PHASES = Map.of(
+            BookingPhase.CURRENT, List.of(BookingPhase.FUTURE),
+            BookingPhase.PAST, List.of(BookingPhase.FUTURE, BookingPhase.CURRENT));
+
+    private final BookingRepository bookingRepository;
+    private final ResourceVersion resourceVersion;
+    private final PriorityQueue<PhaseTransition> transitions = new PriorityQueue<>(
+            Comparator.comparing(PhaseTransition::getAt).thenComparing(PhaseTransition::getPhase));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        LocalDateTime now = LocalDateTime.now();
+        int ended = bookingRepository.updatePhaseOfEnded(now);
+        int started = bookingRepository.updatePhaseOfStarted(now);
+        List<Booking> active = bookingRepository.findAllByPhaseNot(BookingPhase.PAST);
+        synchronized (transitions) {
+            Set<PhaseTransition> queued = new HashSet<>(transitions);
+            active.forEach(booking -> transitionsOf(booking, now).stream()
+                    .filter(queued::add)
+                    .forEach(transitions::add));
+        }
+        log.info("Фазы бронирований синхронизированы: завершено {}, начато {}, ожидают перехода {} (init())",
+                ended, started, active.size());
+    }
+
+    public void schedule(Booking booking) {
+        LocalDateTime now = LocalDateTime.now();
+        afterCommit(() -> {
+            synchronized (transitions) {
+                transitions.addAll(transitionsOf(booking, now));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-phase.interval:1000}")
+    public void advance() {
+        advance(LocalDateTime.now());
+    }
+
+    void advance(LocalDateTime now) {
+        Map<BookingPhase, List<PhaseTransition>> due = new EnumMap<>(BookingPhase.class);
+        synchronized (transitions) {
+            while (!transitions.isEmpty() && !transitions.peek().getAt().isAfter(now)) {
+                PhaseTransition transition = transitions.poll();
+                due.computeIfAbsent(transition.getPhase(), phase -> new ArrayList<>()).add(transition);
+            }
+        }
+        due.forEach((phase, phaseTransitions) -> {
+            try {
+                for (int from = 0; from < phaseTransitions.size(); from += BATCH_SIZE) {
+                    List<PhaseTransition> batch = phaseTransitions.subList(from,
+                            Math.min(from + BATCH_SIZE, phaseTransitions.size()));
+                    List<Integer> ids = new ArrayList<>();
+                    batch.forEach(transition -> ids.add(transition.getBookingId()));
+                    bookingRepository.updatePhase(ids, PRIOR_PHASES.get(phase), phase);
+                }
+                resourceVersion.increment();
+                log.info("Бронирования ({}) переведены в фазу {} (advance())", phaseTransitions.size(), phase);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось перевести бронирования в фазу {}, повтор при следующем запуске (advance())",
+                        phase, e);
+                synchronized (transitions) {
+                    transitions.addAll(phaseTransitions);
+                }
+            }
+        });
+    }
+
+    int pending() {
+        synchronized (transitions) {
+            return transitions.size();
+        }
+    }
+
+    private static List<PhaseTransition> transitionsOf(Booking booking, LocalDateTime now) {
+        List<PhaseTransition> bookingTransitions = new ArrayList<>(2);
+        if (booking.getStart().isAfter(now)) {
+            bookingTransitions.add(new PhaseTransition(booking.getStart(), booking.getId(), BookingPhase.CURRENT));
+        }
+        if (booking.getEnd().isAfter(now)) {
+            bookingTransitions.add(new PhaseTransition(booking.getEnd(), booking.getId(), BookingPhase.PAST));
+        }
+        return bookingTransitions;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Value
+    private static class PhaseTransition {
+        LocalDateTime at;
+        int bookingId;
+        BookingPhase phase;
+    }
+}
@@ -1,18 +1,28 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
 import java.util.List;
 
 public interface BookingService {
+    int MAX_PAGE_SIZE = 100;
+
     BookingResponseDto addBooking(int userId, BookingRequestDto bookingRequestDto);
 
     BookingResponseDto approveBooking(int userId, int bookingId, boolean approve);
 
+    List<BookingApproveResultDto> approveBookings(int userId, List<Integer> bookingIds, boolean approve);
+
     BookingResponseDto findBookingById(int userId, int bookingId);
 
     List<BookingResponseDto> findBookingByUser(int userId, String state, int from, int size);
 
     List<BookingResponseDto> findBookingByOwner(int ownerId, String state, int from, int size);
+
+    List<BookingResponseDto> findBookingByUser(int userId, String state, BookingCursor cursor, int size);
+
+    List<BookingResponseDto> findBookingByOwner(int ownerId, String state, BookingCursor cursor, int size);
 }
@@ -2,14 +2,21 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BookingStateException;
@@ -18,51 +25,126 @@ import ru.practicum.shareit.exception.MessageFailedException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingIndex;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAX_BOOKING_DAYS = 366;
 
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingIndex itemBookingIndex;
+    private final BookingPhaseScheduler bookingPhaseScheduler;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     @Override
     public BookingResponseDto addBooking(int userId, BookingRequestDto bookingRequestDto) {
+        return retryOnConflict(() -> saveBooking(userId, bookingRequestDto));
+    }
+
+    @Override
+    public BookingResponseDto approveBooking(int userId, int bookingId, boolean approve) {
+        return retryOnConflict(() -> changeStatus(userId, bookingId, approve));
+    }
+
+    @Override
+    public List<BookingApproveResultDto> approveBookings(int userId, List<Integer> bookingIds, boolean approve) {
+        return retryOnConflict(() -> changeStatuses(userId, bookingIds, approve));
+    }
+
+    private BookingResponseDto saveBooking(int userId, BookingRequestDto bookingRequestDto) {
         User booker = checkUser(userId);
-        Item item = checkItem(bookingRequestDto.getItemId());
+        Item item = checkItemForBooking(bookingRequestDto.getItemId());
         checkItemOwner(userId, item);
         checkItemAvailable(item);
+        checkBookingEnd(bookingRequestDto);
         Booking booking = BookingMapper.toBooking(bookingRequestDto);
         booking.setBooker(booker);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
-        log.info("Запрос Booking с id = {} сохранен (addBooking())", booking.getId());
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        booking.setPhase(BookingPhase.of(booking.getStart(), booking.getEnd(), LocalDateTime.now()));
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.reserve(savedBooking);
+        itemBookingIndex.add(savedBooking);
+        bookingPhaseScheduler.schedule(savedBooking);
+        log.info("Запрос Booking с id = {} сохранен (addBooking())", savedBooking.getId());
+        return BookingMapper.toBookingResponseDto(savedBooking);
     }
 
-    @Transactional
-    @Override
-    public BookingResponseDto approveBooking(int userId, int bookingId, boolean approve) {
+    private BookingResponseDto changeStatus(int userId, int bookingId, boolean approve) {
         checkUser(userId);
         Booking booking = checkBooking(bookingId);
         checkBookingStatus(booking);
         Item item = booking.getItem();
         checkAccessForApprove(userId, item);
+        if (approve) {
+            bookingIntervalIndex.checkApprove(booking);
+        } else {
+            bookingIntervalIndex.release(booking);
+            itemBookingIndex.remove(item.getId());
+        }
         booking.setStatus(approve ? BookingStatus.APPROVED : BookingStatus.REJECTED);
         log.info("Статус бронированиня у запроса с id = {} изменен на {} (approveBooking())",
                 booking.getId(), booking.getStatus());
         return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
     }
 
+    private List<BookingApproveResultDto> changeStatuses(int userId, List<Integer> bookingIds, boolean approve) {
+        checkUser(userId);
+        Set<Integer> ids = new LinkedHashSet<>(bookingIds);
+        Map<Integer, Booking> bookings = bookingRepository.findAllWithItemByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        BookingStatus status = approve ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<BookingApproveResultDto> results = new ArrayList<>();
+        List<Integer> changedIds = new ArrayList<>();
+        for (int id : ids) {
+            Booking booking = bookings.get(id);
+            try {
+                if (booking == null) {
+                    throw new EntityNotFoundException(String.format("Ошибка! Бронирование с id = %s не найдена", id));
+                }
+                checkAccessForApprove(userId, booking.getItem());
+                checkBookingStatus(booking);
+                if (approve) {
+                    bookingIntervalIndex.checkApprove(booking);
+                } else {
+                    bookingIntervalIndex.release(booking);
+                    itemBookingIndex.remove(booking.getItem().getId());
+                }
+            } catch (EntityNotFoundException | BookingStateException | ValidateException e) {
+                results.add(new BookingApproveResultDto(id, booking == null ? null : booking.getStatus(),
+                        e.getMessage()));
+                continue;
+            }
+            changedIds.add(id);
+            results.add(new BookingApproveResultDto(id, status, null));
+        }
+        if (!changedIds.isEmpty()
+                && bookingRepository.updateStatus(changedIds, BookingStatus.WAITING, status) != changedIds.size()) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, changedIds);
+        }
+        log.info("Статус изменен на {} у {} из {} запросов на бронирование (approveBookings())", status,
+                changedIds.size(), ids.size());
+        return results;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public BookingResponseDto findBookingById(int userId, int bookingId) {
@@ -80,52 +162,27 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingResponseDto> findBookingByUser(int userId, String state, int from, int size) {
         checkUser(userId);
         validBookingState(state);
-        LocalDateTime now = LocalDateTime.now();
         List<BookingResponseDto> bookingList = null;
         switch (BookingState.valueOf(state)) {
             case CURRENT:
-                bookingList = bookingRepository
-                        .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, now, now)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
-                break;
             case PAST:
-                bookingList = bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(userId, now,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
-                break;
             case FUTURE:
-                bookingList = bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(userId, now,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookingList = bookingRepository.findAllByBookerIdAndPhaseOrderByStartDesc(userId,
+                        BookingPhase.valueOf(state), getPage(from, size));
                 break;
             case WAITING:
                 bookingList = bookingRepository
                         .findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                                getPage(from, size));
                 break;
             case REJECTED:
                 bookingList = bookingRepository
                         .findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                                getPage(from, size));
                 break;
             case ALL:
                 bookingList = bookingRepository.findAllByBookerIdOrderByStartDesc(userId,
-                        PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        getPage(from, size));
                 break;
         }
         log.info("Получены все бронирования пользователя с id = {} (findBookingByUser())", userId);
@@ -137,56 +194,111 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingResponseDto> findBookingByOwner(int ownerId, String state, int from, int size) {
         checkUser(ownerId);
         validBookingState(state);
-        LocalDateTime now = LocalDateTime.now();
         List<BookingResponseDto> bookingList = null;
         switch (BookingState.valueOf(state)) {
             case CURRENT:
-                bookingList = bookingRepository.findAllCurrentByItemsOwnerId(ownerId, now, now,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
-                break;
             case PAST:
-                bookingList = bookingRepository.findAllPastByItemsOwnerId(ownerId, now,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
-                break;
             case FUTURE:
-                bookingList = bookingRepository.findAllFutureByItemsOwnerId(ownerId, now,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookingList = bookingRepository.findAllPhaseByItemsOwnerId(ownerId, BookingPhase.valueOf(state),
+                        getPage(from, size));
                 break;
             case WAITING:
                 bookingList = bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.WAITING,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        getPage(from, size));
                 break;
             case REJECTED:
                 bookingList = bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.REJECTED,
-                                PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        getPage(from, size));
                 break;
             case ALL:
                 bookingList = bookingRepository.findAllByItemsOwnerId(ownerId,
-                        PageRequest.of(getPageNumber(from, size), size))
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        getPage(from, size));
                 break;
         }
         log.info("Получены все бронирования пользователя с id = {} (findBookingByOwner())", ownerId);
         return bookingList;
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> findBookingByUser(int userId, String state, BookingCursor cursor, int size) {
+        checkUser(userId);
+        validBookingState(state);
+        LocalDateTime cursorStart = cursor.getStart();
+        int cursorId = cursor.getId();
+        Pageable page = PageRequest.of(0, checkPageSize(size));
+        List<BookingResponseDto> bookings = null;
+        switch (BookingState.valueOf(state)) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                bookings = bookingRepository.findSeekPhaseByBookerId(userId, BookingPhase.valueOf(state),
+                        cursorStart, cursorId, page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findSeekStatusByBookerId(userId, BookingStatus.WAITING,
+                        cursorStart, cursorId, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findSeekStatusByBookerId(userId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, page);
+                break;
+            case ALL:
+                bookings = bookingRepository.findSeekByBookerId(userId, cursorStart, cursorId, page);
+                break;
+        }
+        log.info("Получена страница бронирований пользователя с id = {} после курсора {} (findBookingByUser())",
+                userId, cursor);
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> findBookingByOwner(int ownerId, String state, BookingCursor cursor, int size) {
+        checkUser(ownerId);
+        validBookingState(state);
+        LocalDateTime cursorStart = cursor.getStart();
+        int cursorId = cursor.getId();
+        Pageable page = PageRequest.of(0, checkPageSize(size));
+        List<BookingResponseDto> bookings = null;
+        switch (BookingState.valueOf(state)) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                bookings = bookingRepository.findSeekPhaseByItemsOwnerId(ownerId, BookingPhase.valueOf(state),
+                        cursorStart, cursorId, page);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findSeekStatusByItemsOwnerId(ownerId, BookingStatus.WAITING,
+                        cursorStart, cursorId, page);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findSeekStatusByItemsOwnerId(ownerId, BookingStatus.REJECTED,
+                        cursorStart, cursorId, page);
+                break;
+            case ALL:
+                bookings = bookingRepository.findSeekByItemsOwnerId(ownerId, cursorStart, cursorId, page);
+                break;
+        }
+        log.info("Получена страница бронирований владельца с id = {} после курсора {} (findBookingByOwner())",
+                ownerId, cursor);
+        return bookings;
+    }
+
+    private <T> T retryOnConflict(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Конфликт параллельного изменения бронирования, попытка {} из {}: {}", attempt,
+                        MAX_ATTEMPTS, e.getMessage());
+            }
+        }
+    }
+
     private void checkBookingStatus(Booking booking) {
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new BookingStateException(String.format("Ошибка! Бронирование id=%d уже находится в статусе %S!",
@@ -215,14 +327,21 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void checkBookingEnd(BookingRequestDto bookingRequestDto) {
+        if (bookingRequestDto.getEnd().isAfter(LocalDateTime.now().plusDays(MAX_BOOKING_DAYS))) {
+            throw new ValidateException(String.format("Ошибка! Бронирование должно закончиться не позже чем " +
+                    "через %d дней!", MAX_BOOKING_DAYS));
+        }
+    }
+
     private User checkUser(int id) {
-        return userRepository.findById(id)
+        return userCache.find(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Ошибка! " +
                         "Пользователь с id = %s не найден", id)));
     }
 
-    private Item checkItem(int id) {
-        return itemRepository.findById(id)
+    private Item checkItemForBooking(int id) {
+        return itemRepository.findForBookingById(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Ошибка! " +
                         "Вещь с id = %s не найдена", id)));
     }
@@ -241,7 +360,15 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private int getPageNumber(int from, int size) {
-        return from / size;
+    private Pageable getPage(int from, int size) {
+        return PageRequest.of(from / checkPageSize(size), size);
+    }
+
+    private int checkPageSize(int size) {
+        if (size > MAX_PAGE_SIZE) {
+            throw new ValidateException(String.format("Ошибка! Размер страницы не может превышать %d!",
+                    MAX_PAGE_SIZE));
+        }
+        return size;
     }
 }
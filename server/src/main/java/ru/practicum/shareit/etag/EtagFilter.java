@@ -0,0 +1,47 @@
+package ru.practicum.shareit.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Component
+@RequiredArgsConstructor
+public class EtagFilter extends OncePerRequestFilter {
+    private static final String X_SHARER_USER_ID = "X-Sharer-User-Id";
+
+    private final ResourceVersion resourceVersion;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                resourceVersion.increment();
+            }
+            return;
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag(request))) {
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String etag(HttpServletRequest request) {
+        String resource = request.getHeader(X_SHARER_USER_ID) + " " + request.getRequestURI() + "?" +
+                request.getQueryString();
+        return "\"" + resourceVersion.current() + "-" +
+                DigestUtils.md5DigestAsHex(resource.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
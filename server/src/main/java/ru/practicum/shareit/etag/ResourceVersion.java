@@ -0,0 +1,19 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ResourceVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong generation = new AtomicLong();
+
+    public String current() {
+        return epoch + "-" + generation.get();
+    }
+
+    public void increment() {
+        generation.incrementAndGet();
+    }
+}
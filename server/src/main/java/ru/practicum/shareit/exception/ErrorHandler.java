@@ -2,6 +2,7 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.connector.Response;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -34,6 +35,14 @@ public class ErrorHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<String> handleConcurrencyFailureException(final ConcurrencyFailureException e) {
+        log.error("ConcurrencyFailureException. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
+                HttpStatus.CONFLICT);
+        return new ResponseEntity<>("Ошибка! Данные были изменены параллельным запросом, повторите попытку.",
+                HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler
     public ResponseEntity<String> handleThrowable(final Throwable e) {
         log.error("Throwable. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
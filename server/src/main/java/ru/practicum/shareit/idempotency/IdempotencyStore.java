@@ -0,0 +1,75 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class IdempotencyStore {
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+
+    IdempotencyStore(int maxSize, Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized Entry begin(String key, byte[] fingerprint) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getExpiresAt().isAfter(clock.instant())) {
+            return entry;
+        }
+        entries.put(key, new Entry(fingerprint, null, clock.instant().plus(ttl)));
+        return null;
+    }
+
+    synchronized void complete(String key, StoredResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getResponse() == null) {
+            entries.put(key, new Entry(entry.getFingerprint(), response, clock.instant().plus(ttl)));
+        }
+    }
+
+    synchronized void abort(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getResponse() == null) {
+            entries.remove(key);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Entry {
+        private final byte[] fingerprint;
+        private final StoredResponse response;
+        private final Instant expiresAt;
+
+        boolean matches(byte[] otherFingerprint) {
+            return MessageDigest.isEqual(fingerprint, otherFingerprint);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class StoredResponse {
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+    }
+}
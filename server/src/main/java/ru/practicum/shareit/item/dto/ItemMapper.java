@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.experimental.UtilityClass;
 import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
@@ -44,4 +45,16 @@ public class ItemMapper {
                 nextBooking != null ? BookingMapper.toBookingItemDto(nextBooking) : null,
                 comments);
     }
+
+    public static ItemResponseDto toItemResponseDto(Item item, BookingItemDto lastBooking, BookingItemDto nextBooking,
+                                                    List<CommentDto> comments) {
+        return new ItemResponseDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                lastBooking,
+                nextBooking,
+                comments);
+    }
 }
@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findCommentsByItemId(int itemId);
+
+    @Query("select c from Comment c join fetch c.author where c.item.id in ?1 order by c.id")
+    List<Comment> findCommentsByItemIds(Collection<Integer> itemIds);
 }
@@ -2,22 +2,53 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Integer> {
 
     List<Item> findItemsByOwnerIdOrderById(int userId, Pageable pageable);
 
+    @Query("select i.id from Item i where i.owner.id = ?1")
+    List<Integer> findIdsByOwnerId(int ownerId);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findForBookingById(int id);
+
     @Query("select i from Item i " +
            "where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) " +
            "or upper(i.description) like upper(concat('%', ?1, '%')))")
     List<Item> searchItemsByText(String text, Pageable pageable);
 
+    @Query("select i from Item i " +
+           "where i.available = true and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+           "or upper(i.description) like upper(concat('%', ?1, '%'))) and not exists (" +
+           "select b.id from Booking b where b.item = i " +
+           "and b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+           "and b.start < ?3 and b.end > ?2)")
+    List<Item> searchFreeItemsByText(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i left join i.request r " +
+            "where i.available = true")
+    List<ItemDto> findAllAvailableForSearch();
+
     @Query(" select i from Item i " +
             "where i.request.id = ?1 " +
             "order by i.id desc")
     List<Item> findAllByRequesterId(int id);
+
+    @Query("select i from Item i join fetch i.owner join fetch i.request r " +
+            "where r.id in ?1 " +
+            "order by i.id desc")
+    List<Item> findAllByRequestIds(Collection<Integer> ids);
 }
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class ItemBookingIndex {
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Integer, ItemBookings> bookingsByItem;
+    private final Map<Integer, Object> loads = new HashMap<>();
+
+    public ItemBookingIndex(BookingRepository bookingRepository,
+                            @Value("${shareit.item-bookings.max-size:10000}") int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingsByItem = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ItemBookings> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public ItemBookings find(int itemId, LocalDateTime now) {
+        Object load = new Object();
+        synchronized (bookingsByItem) {
+            ItemBookings itemBookings = bookingsByItem.get(itemId);
+            if (itemBookings != null && now.isBefore(itemBookings.getValidUntil())) {
+                return itemBookings;
+            }
+            loads.put(itemId, load);
+        }
+        ItemBookings loaded;
+        try {
+            loaded = load(itemId, now);
+        } catch (RuntimeException e) {
+            synchronized (bookingsByItem) {
+                loads.remove(itemId, load);
+            }
+            throw e;
+        }
+        synchronized (bookingsByItem) {
+            if (loads.remove(itemId, load)) {
+                bookingsByItem.put(itemId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void add(Booking booking) {
+        if (!ACTIVE_STATUSES.contains(booking.getStatus())) {
+            return;
+        }
+        int itemId = booking.getItem().getId();
+        BookingItemDto bookingItemDto = BookingMapper.toBookingItemDto(booking);
+        LocalDateTime start = booking.getStart();
+        afterCommit(() -> {
+            synchronized (bookingsByItem) {
+                bookingsByItem.computeIfPresent(itemId, (id, itemBookings) -> itemBookings.with(bookingItemDto,
+                        start, LocalDateTime.now()));
+                loads.remove(itemId);
+            }
+        });
+    }
+
+    public void remove(int itemId) {
+        Runnable eviction = () -> {
+            synchronized (bookingsByItem) {
+                bookingsByItem.remove(itemId);
+                loads.remove(itemId);
+            }
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (bookingsByItem) {
+            return bookingsByItem.size();
+        }
+    }
+
+    private ItemBookings load(int itemId, LocalDateTime now) {
+        List<Booking> lastBookings = bookingRepository.findLastBookingsByItemIds(List.of(itemId), now);
+        List<Booking> nextBookings = bookingRepository.findNextBookingsByItemIds(List.of(itemId), now);
+        Booking nextBooking = nextBookings.isEmpty() ? null : nextBookings.get(0);
+        return new ItemBookings(
+                lastBookings.isEmpty() ? null : BookingMapper.toBookingItemDto(lastBookings.get(0)),
+                BookingMapper.toBookingItemDto(nextBooking),
+                nextBooking == null ? LocalDateTime.MAX : nextBooking.getStart());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @lombok.Value
+    public static class ItemBookings {
+        public static final ItemBookings NONE = new ItemBookings(null, null, LocalDateTime.MAX);
+
+        BookingItemDto lastBooking;
+        BookingItemDto nextBooking;
+        LocalDateTime validUntil;
+
+        ItemBookings with(BookingItemDto booking, LocalDateTime start, LocalDateTime now) {
+            if (!start.isAfter(now)) {
+                return null;
+            }
+            if (nextBooking == null || start.isBefore(validUntil)) {
+                return new ItemBookings(lastBooking, booking, start);
+            }
+            return this;
+        }
+    }
+}
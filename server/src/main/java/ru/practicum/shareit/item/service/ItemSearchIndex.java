@@ -0,0 +1,424 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IndexedItem> items = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private List<Runnable> pendingUpdates;
+    private volatile boolean built;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<ItemDto> availableItems;
+        try {
+            availableItems = itemRepository.findAllAvailableForSearch();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            postings.clear();
+            trigramIndex.clear();
+            totalNameLength = 0;
+            totalDescriptionLength = 0;
+            availableItems.forEach(this::index);
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates = null;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс вещей перестроен, проиндексировано вещей: {}", availableItems.size());
+    }
+
+    public void put(Item item) {
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+        afterCommit(() -> update(() -> {
+            unindex(itemDto.getId());
+            if (Boolean.TRUE.equals(itemDto.getAvailable())) {
+                index(itemDto);
+            }
+        }));
+    }
+
+    public void remove(int itemId) {
+        afterCommit(() -> update(() -> unindex(itemId)));
+    }
+
+    private void update(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<List<ItemDto>> search(String text, int offset, int limit) {
+        return search(text, new BitSet(), offset, limit);
+    }
+
+    public Optional<List<ItemDto>> search(String text, BitSet excludedIds, int offset, int limit) {
+        Set<String> queryTokens = tokenize(text);
+        if (!built || queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+        String query = text.toUpperCase(Locale.ROOT);
+        List<ItemDto> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = findCandidates(queryTokens).values().stream()
+                    .reduce((first, second) -> {
+                        first.and(second);
+                        return first;
+                    })
+                    .orElseGet(BitSet::new);
+            candidates.andNot(excludedIds);
+            int skipped = 0;
+            for (int id = candidates.nextSetBit(0); id >= 0 && result.size() < limit;
+                 id = candidates.nextSetBit(id + 1)) {
+                IndexedItem indexedItem = items.get(id);
+                if (!indexedItem.matches(query)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    result.add(copy(indexedItem.getItem()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<List<ItemDto>> searchByRelevance(String text, int offset, int limit) {
+        return searchByRelevance(text, new BitSet(), offset, limit);
+    }
+
+    public Optional<List<ItemDto>> searchByRelevance(String text, BitSet excludedIds, int offset, int limit) {
+        Set<String> queryTokens = tokenize(text);
+        if (!built || queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+        String query = text.toUpperCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> candidatesByToken = findCandidates(queryTokens);
+            BitSet candidates = null;
+            Map<String, Double> idf = new HashMap<>();
+            for (Map.Entry<String, BitSet> entry : candidatesByToken.entrySet()) {
+                int documentFrequency = entry.getValue().cardinality();
+                idf.put(entry.getKey(), Math.log(1 + (items.size() - documentFrequency + 0.5)
+                        / (documentFrequency + 0.5)));
+                if (candidates == null) {
+                    candidates = (BitSet) entry.getValue().clone();
+                } else {
+                    candidates.and(entry.getValue());
+                }
+            }
+            candidates.andNot(excludedIds);
+            double averageNameLength = Math.max(1.0, (double) totalNameLength / Math.max(1, items.size()));
+            double averageDescriptionLength = Math.max(1.0,
+                    (double) totalDescriptionLength / Math.max(1, items.size()));
+            List<ScoredItem> scoredItems = new ArrayList<>();
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                IndexedItem indexedItem = items.get(id);
+                if (!indexedItem.matches(query)) {
+                    continue;
+                }
+                double score = 0;
+                for (String queryToken : queryTokens) {
+                    double frequency = NAME_WEIGHT * indexedItem.getName().frequency(queryToken)
+                            / (1 - B + B * indexedItem.getName().getLength() / averageNameLength)
+                            + DESCRIPTION_WEIGHT * indexedItem.getDescription().frequency(queryToken)
+                            / (1 - B + B * indexedItem.getDescription().getLength() / averageDescriptionLength);
+                    score += idf.get(queryToken) * frequency / (K1 + frequency);
+                }
+                scoredItems.add(new ScoredItem(indexedItem.getItem(), score));
+            }
+            return Optional.of(scoredItems.stream()
+                    .sorted(Comparator.comparingDouble(ScoredItem::getScore).reversed()
+                            .thenComparingInt(scoredItem -> scoredItem.getItem().getId()))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(scoredItem -> copy(scoredItem.getItem()))
+                    .collect(Collectors.toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<List<ItemDto>> searchFuzzy(String text, double threshold, int offset, int limit) {
+        return searchFuzzy(text, threshold, new BitSet(), offset, limit);
+    }
+
+    public Optional<List<ItemDto>> searchFuzzy(String text, double threshold, BitSet excludedIds, int offset,
+                                               int limit) {
+        Set<String> queryTokens = tokenize(text);
+        if (!built || queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String queryToken : queryTokens) {
+                Map<Integer, Double> tokenScores = new HashMap<>();
+                trigramIndex.findSimilar(queryToken, threshold).forEach((token, similarity) -> {
+                    BitSet ids = new BitSet();
+                    postings.get(token).addTo(ids);
+                    for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                        tokenScores.merge(id, similarity, Math::max);
+                    }
+                });
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+            }
+            scores.keySet().removeIf(excludedIds::get);
+            return Optional.of(scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(entry -> copy(items.get(entry.getKey()).getItem()))
+                    .collect(Collectors.toList()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, BitSet> findCandidates(Set<String> queryTokens) {
+        Map<String, BitSet> candidates = new HashMap<>();
+        for (String queryToken : queryTokens) {
+            candidates.put(queryToken, findContaining(queryToken));
+        }
+        return candidates;
+    }
+
+    private BitSet findContaining(String queryToken) {
+        BitSet ids = new BitSet();
+        if (queryToken.length() >= 3) {
+            trigramIndex.findContaining(queryToken).forEach(token -> postings.get(token).addTo(ids));
+            return ids;
+        }
+        postings.forEach((token, postingList) -> {
+            if (token.contains(queryToken)) {
+                postingList.addTo(ids);
+            }
+        });
+        return ids;
+    }
+
+    private void index(ItemDto itemDto) {
+        IndexedItem indexedItem = new IndexedItem(itemDto, TermFrequencies.of(itemDto.getName()),
+                TermFrequencies.of(itemDto.getDescription()));
+        items.put(itemDto.getId(), indexedItem);
+        totalNameLength += indexedItem.getName().getLength();
+        totalDescriptionLength += indexedItem.getDescription().getLength();
+        for (String token : indexedItem.tokens()) {
+            PostingList postingList = postings.get(token);
+            if (postingList == null) {
+                postingList = new PostingList();
+                postings.put(token, postingList);
+                trigramIndex.add(token);
+            }
+            postingList.add(itemDto.getId());
+        }
+    }
+
+    private void unindex(int itemId) {
+        IndexedItem indexedItem = items.remove(itemId);
+        if (indexedItem == null) {
+            return;
+        }
+        totalNameLength -= indexedItem.getName().getLength();
+        totalDescriptionLength -= indexedItem.getDescription().getLength();
+        for (String token : indexedItem.tokens()) {
+            PostingList postingList = postings.get(token);
+            if (postingList != null && postingList.remove(itemId)) {
+                postings.remove(token);
+                trigramIndex.remove(token);
+            }
+        }
+    }
+
+    private static List<String> tokenList(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toUpperCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> tokenize(String text) {
+        return new HashSet<>(tokenList(text));
+    }
+
+    private static ItemDto copy(ItemDto itemDto) {
+        return new ItemDto(itemDto.getId(), itemDto.getName(), itemDto.getDescription(), itemDto.getAvailable(),
+                itemDto.getRequestId());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+            return size == 0;
+        }
+
+        void addTo(BitSet bitSet) {
+            for (int i = 0; i < size; i++) {
+                bitSet.set(ids[i]);
+            }
+        }
+    }
+
+    @Value
+    private static class IndexedItem {
+        ItemDto item;
+        TermFrequencies name;
+        TermFrequencies description;
+
+        boolean matches(String query) {
+            return item.getName().toUpperCase(Locale.ROOT).contains(query)
+                    || item.getDescription().toUpperCase(Locale.ROOT).contains(query);
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(Arrays.asList(name.getTokens()));
+            tokens.addAll(Arrays.asList(description.getTokens()));
+            return tokens;
+        }
+    }
+
+    @Value
+    private static class TermFrequencies {
+        String[] tokens;
+        int[] counts;
+        int length;
+
+        static TermFrequencies of(String text) {
+            List<String> tokenList = tokenList(text);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            tokenList.forEach(token -> counts.merge(token, 1, Integer::sum));
+            return new TermFrequencies(counts.keySet().toArray(new String[0]),
+                    counts.values().stream().mapToInt(Integer::intValue).toArray(),
+                    tokenList.size());
+        }
+
+        int frequency(String queryToken) {
+            int frequency = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i].contains(queryToken)) {
+                    frequency += counts[i];
+                }
+            }
+            return frequency;
+        }
+    }
+
+    @Value
+    private static class ScoredItem {
+        ItemDto item;
+        double score;
+    }
+}
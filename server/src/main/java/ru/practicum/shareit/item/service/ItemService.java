@@ -1,9 +1,11 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -17,7 +19,10 @@ public interface ItemService {
 
     void deleteItem(ItemDto itemDto, int userId);
 
-    List<ItemDto> search(String text, int userId, int from, int size);
+    List<ItemDto> search(String text, int userId, int from, int size, String sort, boolean fuzzy,
+                         LocalDateTime start, LocalDateTime end);
 
     CommentDto addComment(CommentDto commentDto, int userId, int itemId);
+
+    ItemAvailabilityDto getAvailability(int itemId, int userId, LocalDateTime from, LocalDateTime to);
 }
@@ -6,8 +6,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.MessageFailedException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
@@ -17,32 +20,57 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    private static final double SIMILARITY_THRESHOLD = 0.3;
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingIndex itemBookingIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Transactional(readOnly = true)
     @Override
     public List<ItemResponseDto> findAll(int userId, int from, int size) {
         checkUser(userId);
         List<Item> itemList = itemRepository.findItemsByOwnerIdOrderById(userId, PageRequest.of(getPageNumber(from, size), size));
+        if (itemList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> itemIds = itemList.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Booking> lastBookings = groupFirstByItemId(
+                bookingRepository.findLastBookingsByItemIds(itemIds, now));
+        Map<Integer, Booking> nextBookings = groupFirstByItemId(
+                bookingRepository.findNextBookingsByItemIds(itemIds, now));
+        Map<Integer, List<CommentDto>> comments = commentRepository.findCommentsByItemIds(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
         List<ItemResponseDto> itemDtoResponseList = new ArrayList<>();
         for (Item item : itemList) {
-            ItemResponseDto itemResponseDto = getItemResponseDto(item, userId);
-            itemDtoResponseList.add(itemResponseDto);
+            itemDtoResponseList.add(ItemMapper.toItemResponseDto(item,
+                    lastBookings.get(item.getId()),
+                    nextBookings.get(item.getId()),
+                    comments.getOrDefault(item.getId(), new ArrayList<>())));
         }
         log.info("Получены все вещи пользователя c id = {} (findAll())", userId);
         return itemDtoResponseList;
@@ -82,6 +110,7 @@ public class ItemServiceImpl implements ItemService {
         }
         Item item = ItemMapper.toItem(itemDto, owner, request);
         itemRepository.save(item);
+        itemSearchIndex.put(item);
         log.info("Вещь с id = {} сохранена (addItem())", item.getId());
         return ItemMapper.toItemDto(item);
     }
@@ -103,8 +132,10 @@ public class ItemServiceImpl implements ItemService {
         } else {
             throw new EntityNotFoundException("Ошибка! Редактировать информацию о вещи может только ее владелец");
         }
+        Item updatedItem = itemRepository.save(oldItem);
+        itemSearchIndex.put(updatedItem);
         log.info("Данные о вещи с id = {} обновлены (updateItem())", oldItem.getId());
-        return ItemMapper.toItemDto(itemRepository.save(oldItem));
+        return ItemMapper.toItemDto(updatedItem);
     }
 
     @Transactional
@@ -115,15 +146,77 @@ public class ItemServiceImpl implements ItemService {
             throw new EntityNotFoundException("Ошибка! Удалить вещь может только ее владелец");
         } else {
             itemRepository.delete(item);
+            itemSearchIndex.remove(item.getId());
+            itemBookingIndex.remove(item.getId());
+            bookingIntervalIndex.evict(item.getId());
             log.info("Вещь с id = {} удалена", itemDto.getId());
         }
     }
 
-    public List<ItemDto> search(String text, int userId, int from, int size) {
-        userRepository.findById(userId);
-        log.info("Поиск вещи с параметром text = {}", text);
-        return itemRepository.searchItemsByText(text, PageRequest.of(getPageNumber(from, size), size))
-                .stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    @Override
+    public List<ItemDto> search(String text, int userId, int from, int size, String sort, boolean fuzzy,
+                                LocalDateTime start, LocalDateTime end) {
+        userCache.find(userId);
+        log.info("Поиск вещи с параметром text = {}, sort = {}, fuzzy = {}, start = {}, end = {}", text, sort, fuzzy,
+                start, end);
+        int page = getPageNumber(from, size);
+        ItemSearchSort searchSort = getSearchSort(sort);
+        checkSearchPeriod(start, end);
+        BitSet bookedIds = new BitSet();
+        if (start != null) {
+            bookingRepository.findItemIdsBookedBetween(BookingStatus.APPROVED, start, end).forEach(bookedIds::set);
+        }
+        Optional<List<ItemDto>> indexed;
+        if (fuzzy) {
+            indexed = itemSearchIndex.searchFuzzy(text, SIMILARITY_THRESHOLD, bookedIds, page * size, size);
+        } else if (searchSort == ItemSearchSort.RELEVANCE) {
+            indexed = itemSearchIndex.searchByRelevance(text, bookedIds, page * size, size);
+        } else {
+            indexed = itemSearchIndex.search(text, bookedIds, page * size, size);
+        }
+        return indexed
+                .orElseGet(() -> (start == null
+                        ? itemRepository.searchItemsByText(text, PageRequest.of(page, size))
+                        : itemRepository.searchFreeItemsByText(text, start, end, PageRequest.of(page, size)))
+                        .stream().map(ItemMapper::toItemDto).collect(Collectors.toList()));
+    }
+
+    private void checkSearchPeriod(LocalDateTime start, LocalDateTime end) {
+        if ((start == null) != (end == null)) {
+            throw new ValidateException("Ошибка! Для поиска свободных вещей нужно указать и начало, и окончание!");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new ValidateException("Ошибка! Начало периода должно быть раньше его окончания!");
+        }
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(int itemId, int userId, LocalDateTime from, LocalDateTime to) {
+        checkUser(userId);
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException(String.format("Ошибка! Вещь с id = %s не найдена!", itemId));
+        }
+        if (!from.isBefore(to)) {
+            throw new ValidateException("Ошибка! Начало периода должно быть раньше его окончания!");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new ValidateException(String.format("Ошибка! Период не может быть длиннее %d дней!",
+                    MAX_AVAILABILITY_DAYS));
+        }
+        log.info("Получена занятость вещи с id = {} с {} по {} (getAvailability())", itemId, from, to);
+        return new ItemAvailabilityDto(itemId, from, to, bookingIntervalIndex.findSlots(itemId, from, to));
+    }
+
+    private ItemSearchSort getSearchSort(String sort) {
+        if (sort == null) {
+            return ItemSearchSort.ID;
+        }
+        try {
+            return ItemSearchSort.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new MessageFailedException(String.format("Unknown sort: %s", sort));
+        }
     }
 
     private Item checkItem(int itemId) {
@@ -132,7 +225,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private User checkUser(int id) {
-        return userRepository.findById(id)
+        return userCache.find(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format(" Ошибка! " +
                         "Пользователь с id = %s не найден", id)));
     }
@@ -154,24 +247,20 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private ItemResponseDto getItemResponseDto(Item item, int userId) {
-        List<Booking> bookingList;
-        LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking;
-        Booking nextBooking;
-        bookingList = bookingRepository.findAllByItemsId(item.getId());
         List<CommentDto> comments = commentRepository.findCommentsByItemId(item.getId()).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        if (bookingList.isEmpty()) {
-            lastBooking = null;
-            nextBooking = null;
-        } else {
-            lastBooking = bookingRepository.findLastBookingByItemId(item.getId(), userId, now)
-                    .stream().findFirst().orElse(null);
-            nextBooking = bookingRepository.findNextBookingByItemId(item.getId(), userId, now)
-                    .stream().findFirst().orElse(null);
-        }
-        return ItemMapper.toItemResponseDto(item, lastBooking, nextBooking, comments);
+        ItemBookingIndex.ItemBookings itemBookings = item.getOwner().getId() == userId
+                ? itemBookingIndex.find(item.getId(), LocalDateTime.now())
+                : ItemBookingIndex.ItemBookings.NONE;
+        return ItemMapper.toItemResponseDto(item, itemBookings.getLastBooking(), itemBookings.getNextBooking(),
+                comments);
+    }
+
+    private Map<Integer, Booking> groupFirstByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first));
     }
 
     private void checkCommentAuthor(int userId, int itemId) {
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+class TrigramIndex {
+    private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+
+    void add(String token) {
+        for (String trigram : trigrams(token)) {
+            tokensByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(token);
+        }
+    }
+
+    void remove(String token) {
+        for (String trigram : trigrams(token)) {
+            Set<String> tokens = tokensByTrigram.get(trigram);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    tokensByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        tokensByTrigram.clear();
+    }
+
+    Set<String> findContaining(String fragment) {
+        Set<String> candidates = null;
+        for (int i = 0; i + 3 <= fragment.length(); i++) {
+            Set<String> tokens = tokensByTrigram.getOrDefault(fragment.substring(i, i + 3), Collections.emptySet());
+            if (candidates == null || tokens.size() < candidates.size()) {
+                candidates = tokens;
+            }
+        }
+        Set<String> result = new HashSet<>();
+        if (candidates != null) {
+            for (String token : candidates) {
+                if (token.contains(fragment)) {
+                    result.add(token);
+                }
+            }
+        }
+        return result;
+    }
+
+    Map<String, Double> findSimilar(String token, double threshold) {
+        Set<String> queryTrigrams = trigrams(token);
+        Map<String, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String candidate : tokensByTrigram.getOrDefault(trigram, Collections.emptySet())) {
+                sharedTrigrams.merge(candidate, 1, Integer::sum);
+            }
+        }
+        Map<String, Double> result = new HashMap<>();
+        sharedTrigrams.forEach((candidate, shared) -> {
+            double similarity = (double) shared / (queryTrigrams.size() + trigrams(candidate).size() - shared);
+            if (similarity >= threshold) {
+                result.put(candidate, similarity);
+            }
+        });
+        return result;
+    }
+
+    static Set<String> trigrams(String token) {
+        String padded = "  " + token + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
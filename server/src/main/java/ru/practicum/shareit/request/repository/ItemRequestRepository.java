@@ -11,8 +11,10 @@ import java.util.List;
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Integer> {
 
+    @Query("select r from ItemRequest r join fetch r.requester where r.requester.id = ?1 order by r.created desc")
     List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(int userId);
 
-    @Query("select r from ItemRequest r where r.requester.id <> ?1")
+    @Query(value = "select r from ItemRequest r join fetch r.requester where r.requester.id <> ?1",
+            countQuery = "select count(r) from ItemRequest r where r.requester.id <> ?1")
     List<ItemRequest> findAllByOtherUsers(int userId, Pageable pageable);
 }
@@ -9,14 +9,16 @@ import ru.practicum.shareit.dto.ItemRequestDto;
 import ru.practicum.shareit.dto.ItemRequestMapper;
 import ru.practicum.shareit.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,7 +26,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
 
     @Override
@@ -42,10 +44,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         checkUser(userId);
         List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
         log.info("Получены все запросы (request) пользователя c id = {} (findItemRequestByOwner())", userId);
-        return requests.stream()
-                .map(request -> ItemRequestMapper.toItemRequestResponseDto(request,
-                        itemRepository.findAllByRequesterId(request.getId())))
-                .collect(Collectors.toList());
+        return toItemRequestResponseDtos(requests);
     }
 
     @Transactional(readOnly = true)
@@ -65,14 +64,25 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         int page = from / size;
         List<ItemRequest> requests = itemRequestRepository.findAllByOtherUsers(userId, PageRequest.of(page, size));
         log.info("Получены все запросы (request) пользователя c id = {} (findAllRequests())", userId);
+        return toItemRequestResponseDtos(requests);
+    }
+
+    private List<ItemRequestResponseDto> toItemRequestResponseDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, List<Item>> itemsByRequestId = itemRepository.findAllByRequestIds(requests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
         return requests.stream()
                 .map(request -> ItemRequestMapper.toItemRequestResponseDto(request,
-                        itemRepository.findAllByRequesterId(request.getId())))
+                        itemsByRequestId.getOrDefault(request.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
     private User checkUser(int id) {
-        return userRepository.findById(id)
+        return userCache.find(id)
                 .orElseThrow(() -> new ru.practicum.shareit.exception.EntityNotFoundException(String.format("Ошибка! " +
                         "Пользователь с id = %s не найден", id)));
     }
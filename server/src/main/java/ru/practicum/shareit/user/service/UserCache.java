@@ -0,0 +1,133 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class UserCache {
+    private static final String REQUESTS = "shareit.user.cache.requests";
+    private static final String EVICTIONS = "shareit.user.cache.evictions";
+
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<Integer, CachedUser> users;
+    private final Map<Integer, Object> loads = new HashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expirations;
+
+    @Autowired
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                     @Value("${shareit.user-cache.max-size:10000}") int maxSize,
+                     @Value("${shareit.user-cache.ttl:10m}") Duration ttl) {
+        this(userRepository, meterRegistry, maxSize, ttl, Clock.systemUTC());
+    }
+
+    UserCache(UserRepository userRepository, MeterRegistry meterRegistry, int maxSize, Duration ttl, Clock clock) {
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.hits = meterRegistry.counter(REQUESTS, "result", "hit");
+        this.misses = meterRegistry.counter(REQUESTS, "result", "miss");
+        this.expirations = meterRegistry.counter(EVICTIONS, "cause", "expired");
+        Counter sizeEvictions = meterRegistry.counter(EVICTIONS, "cause", "size");
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedUser> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("shareit.user.cache.size", this, UserCache::size).register(meterRegistry);
+    }
+
+    public Optional<User> find(int id) {
+        Object load = new Object();
+        synchronized (users) {
+            CachedUser cachedUser = users.get(id);
+            if (cachedUser != null) {
+                if (cachedUser.getExpiresAt().isAfter(clock.instant())) {
+                    hits.increment();
+                    return Optional.of(copy(cachedUser.getUser()));
+                }
+                users.remove(id);
+                expirations.increment();
+            }
+            loads.put(id, load);
+        }
+        misses.increment();
+        Optional<User> user;
+        try {
+            user = userRepository.findById(id);
+        } catch (RuntimeException e) {
+            synchronized (users) {
+                loads.remove(id, load);
+            }
+            throw e;
+        }
+        synchronized (users) {
+            if (loads.remove(id, load)) {
+                user.ifPresent(found -> users.put(id, new CachedUser(copy(found), clock.instant().plus(ttl))));
+            }
+        }
+        return user;
+    }
+
+    public void invalidate(int id) {
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(id);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    private void remove(int id) {
+        synchronized (users) {
+            users.remove(id);
+            loads.remove(id);
+        }
+    }
+
+    private static User copy(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedUser {
+        private final User user;
+        private final Instant expiresAt;
+    }
+}
@@ -4,7 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingIndex;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,6 +23,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingIndex itemBookingIndex;
+    private final ItemSearchIndex itemSearchIndex;
 
     @Transactional(readOnly = true)
     @Override
@@ -44,7 +55,9 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public UserDto updateUser(UserDto userDto, int id) {
-        User oldUser = checkUser(id);
+        User oldUser = userRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Ошибка! " +
+                        "Пользователь с id = %s не найден", id)));
         if (userDto.getName() != null && !userDto.getName().isBlank()) {
             oldUser.setName(userDto.getName());
         }
@@ -52,6 +65,7 @@ public class UserServiceImpl implements UserService {
             oldUser.setEmail(userDto.getEmail());
         }
         log.info("Данные пользователя с id = {} обновлены", oldUser.getId());
+        userCache.invalidate(id);
         return UserMapper.toUserDto(userRepository.save(oldUser));
     }
 
@@ -59,12 +73,19 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(int id) {
         checkUser(id);
+        List<Integer> ownedItemIds = itemRepository.findIdsByOwnerId(id);
+        List<Integer> bookedItemIds = bookingRepository.findItemIdsByBookerId(id);
         userRepository.deleteById(id);
+        userCache.invalidate(id);
+        ownedItemIds.forEach(itemSearchIndex::remove);
+        ownedItemIds.forEach(bookingIntervalIndex::evict);
+        bookedItemIds.forEach(bookingIntervalIndex::evict);
+        bookedItemIds.forEach(itemBookingIndex::remove);
         log.info("Пользователь с id = {} удален", id);
     }
 
     private User checkUser(int id) {
-        return userRepository.findById(id)
+        return userCache.find(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Ошибка! " +
                         "Пользователь с id = %s не найден", id)));
     }
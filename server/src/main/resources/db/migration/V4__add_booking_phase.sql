@@ -0,0 +1,13 @@
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(8);
+
+UPDATE bookings SET phase = CASE
+    WHEN end_date <= LOCALTIMESTAMP THEN 'PAST'
+    WHEN start_date <= LOCALTIMESTAMP THEN 'CURRENT'
+    ELSE 'FUTURE'
+    END;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings (item_id, phase, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_phase_end ON bookings (phase, end_date);
@@ -0,0 +1,159 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SchemaIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final PageRequest PAGE = PageRequest.of(0, 10);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CapturingStatementInspector statementInspector;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                query("bookings by booker", test -> test.bookingRepository
+                        .findAllByBookerIdOrderByStartDesc(1, PAGE)),
+                query("bookings by booker and phase", test -> test.bookingRepository
+                        .findAllByBookerIdAndPhaseOrderByStartDesc(1, BookingPhase.CURRENT, PAGE)),
+                query("bookings by booker and status", test -> test.bookingRepository
+                        .findAllByBookerIdAndStatusOrderByStartDesc(1, BookingStatus.WAITING, PAGE)),
+                query("bookings by owner", test -> test.bookingRepository
+                        .findAllByItemsOwnerId(1, PAGE)),
+                query("bookings by owner and phase", test -> test.bookingRepository
+                        .findAllPhaseByItemsOwnerId(1, BookingPhase.FUTURE, PAGE)),
+                query("bookings by owner and status", test -> test.bookingRepository
+                        .findAllStatusByItemsOwnerId(1, BookingStatus.REJECTED, PAGE)),
+                query("bookings by booker after cursor", test -> test.bookingRepository
+                        .findSeekPhaseByBookerId(1, BookingPhase.PAST, NOW, 1, PAGE)),
+                query("last bookings of items", test -> test.bookingRepository
+                        .findLastBookingsByItemIds(List.of(1, 2, 3), NOW)),
+                query("next bookings of items", test -> test.bookingRepository
+                        .findNextBookingsByItemIds(List.of(1, 2, 3), NOW)),
+                query("started bookings phase update", test -> test.bookingRepository
+                        .updatePhaseOfStarted(NOW)),
+                query("scheduled phase update", test -> test.bookingRepository
+                        .updatePhase(List.of(1, 2), List.of(BookingPhase.FUTURE), BookingPhase.CURRENT)),
+                query("items by owner", test -> test.itemRepository
+                        .findItemsByOwnerIdOrderById(1, PAGE)),
+                query("items by request", test -> test.itemRepository
+                        .findAllByRequesterId(1)),
+                query("items by requests", test -> test.itemRepository
+                        .findAllByRequestIds(List.of(1, 2))),
+                query("comments by item", test -> test.commentRepository
+                        .findCommentsByItemId(1)),
+                query("comments by items", test -> test.commentRepository
+                        .findCommentsByItemIds(List.of(1, 2))),
+                query("requests by requester", test -> test.itemRequestRepository
+                        .findAllByRequesterIdOrderByCreatedDesc(1))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryDoesNotScanTable(String name, Consumer<SchemaIndexTest> query) {
+        List<String> statements = statementInspector.capture(() -> query.accept(this));
+
+        assertFalse(statements.isEmpty(), name);
+        for (String statement : statements) {
+            String plan = explain(statement);
+            assertFalse(plan.contains("tableScan"), plan);
+            assertFalse(plan.contains("Seq Scan"), plan);
+        }
+    }
+
+    private String explain(String statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + statement)) {
+                int parameters = explain.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    explain.setNull(i, Types.NULL);
+                }
+                List<String> plan = new ArrayList<>();
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return String.join("\n", plan);
+            }
+        });
+    }
+
+    private static Arguments query(String name, Consumer<SchemaIndexTest> query) {
+        return Arguments.of(name, query);
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    static class CapturingStatementInspector implements StatementInspector {
+        private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+        List<String> capture(Runnable action) {
+            List<String> statements = new ArrayList<>();
+            captured.set(statements);
+            try {
+                action.run();
+            } finally {
+                captured.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = captured.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
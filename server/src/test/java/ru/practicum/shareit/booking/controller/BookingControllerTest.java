@@ -7,13 +7,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingApproveRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.ResourceVersion;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
@@ -24,10 +31,12 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(ResourceVersion.class)
 @AutoConfigureMockMvc
 public class BookingControllerTest {
 
@@ -54,8 +63,8 @@ public class BookingControllerTest {
                 LocalDateTime.of(2022, 12, 12, 12, 12, 12),
                 LocalDateTime.of(2022, 12, 15, 12, 12, 12),
                 BookingStatus.WAITING,
-                user,
-                item);
+                UserMapper.toUserDto(user),
+                ItemMapper.toItemDto(item));
         bookingRequestDto = new BookingRequestDto(
                 1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2));
     }
@@ -72,8 +81,9 @@ public class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(bookingResponseDto.getId()), Integer.class))
-                .andExpect(jsonPath("$.booker", is(bookingResponseDto.getBooker()), User.class))
-                .andExpect(jsonPath("$.item", is(bookingResponseDto.getItem()), Item.class))
+                .andExpect(jsonPath("$.booker.id", is(bookingResponseDto.getBooker().getId())))
+                .andExpect(jsonPath("$.item.id", is(bookingResponseDto.getItem().getId())))
+                .andExpect(jsonPath("$.item.name", is(bookingResponseDto.getItem().getName())))
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
 
         verify(bookingService, times(1)).addBooking(anyInt(), any());
@@ -92,13 +102,36 @@ public class BookingControllerTest {
                         .param("approved", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(bookingResponseDto.getId()), Integer.class))
-                .andExpect(jsonPath("$.booker", is(bookingResponseDto.getBooker()), User.class))
-                .andExpect(jsonPath("$.item", is(bookingResponseDto.getItem()), Item.class))
+                .andExpect(jsonPath("$.booker.id", is(bookingResponseDto.getBooker().getId())))
+                .andExpect(jsonPath("$.item.id", is(bookingResponseDto.getItem().getId())))
+                .andExpect(jsonPath("$.item.name", is(bookingResponseDto.getItem().getName())))
                 .andExpect(jsonPath("$.status", is(bookingResponseDto.getStatus().toString())));
 
         verify(bookingService, times(1)).approveBooking(anyInt(), anyInt(), anyBoolean());
     }
 
+    @Test
+    void approveBookings() throws Exception {
+        when(bookingService.approveBookings(anyInt(), any(), anyBoolean())).thenReturn(List.of(
+                new BookingApproveResultDto(1, BookingStatus.APPROVED, null),
+                new BookingApproveResultDto(2, null, "not found")));
+
+        mockMvc.perform(patch("/bookings/approve")
+                        .header("X-Sharer-User-Id", "1")
+                        .content(mapper.writeValueAsString(new BookingApproveRequestDto(List.of(1, 2), true)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2)))
+                .andExpect(jsonPath("$[1].error", is("not found")));
+
+        verify(bookingService, times(1)).approveBookings(1, List.of(1, 2), true);
+        verify(bookingService, never()).approveBooking(anyInt(), anyInt(), anyBoolean());
+    }
+
     @Test
     void getById() throws Exception {
         when(bookingService.findBookingById(anyInt(), anyInt())).thenReturn(bookingResponseDto);
@@ -111,8 +144,9 @@ public class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(bookingResponseDto.getId()), Integer.class))
-                .andExpect(jsonPath("$.booker", is(bookingResponseDto.getBooker()), User.class))
-                .andExpect(jsonPath("$.item", is(bookingResponseDto.getItem()), Item.class));
+                .andExpect(jsonPath("$.booker.id", is(bookingResponseDto.getBooker().getId())))
+                .andExpect(jsonPath("$.item.id", is(bookingResponseDto.getItem().getId())))
+                .andExpect(jsonPath("$.item.name", is(bookingResponseDto.getItem().getName())));
 
         verify(bookingService, times(1)).findBookingById(anyInt(), anyInt());
     }
@@ -134,8 +168,9 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id", is(bookingResponseDto.getId()), Integer.class))
-                .andExpect(jsonPath("$[0].booker", is(bookingResponseDto.getBooker()), User.class))
-                .andExpect(jsonPath("$[0].item", is(bookingResponseDto.getItem()), Item.class));
+                .andExpect(jsonPath("$[0].booker.id", is(bookingResponseDto.getBooker().getId())))
+                .andExpect(jsonPath("$[0].item.id", is(bookingResponseDto.getItem().getId())))
+                .andExpect(jsonPath("$[0].item.name", is(bookingResponseDto.getItem().getName())));
 
         verify(bookingService, times(1))
                 .findBookingByUser(anyInt(), anyString(), anyInt(), anyInt());
@@ -158,10 +193,59 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id", is(bookingResponseDto.getId()), Integer.class))
-                .andExpect(jsonPath("$[0].booker", is(bookingResponseDto.getBooker()), User.class))
-                .andExpect(jsonPath("$[0].item", is(bookingResponseDto.getItem()), Item.class));
+                .andExpect(jsonPath("$[0].booker.id", is(bookingResponseDto.getBooker().getId())))
+                .andExpect(jsonPath("$[0].item.id", is(bookingResponseDto.getItem().getId())))
+                .andExpect(jsonPath("$[0].item.name", is(bookingResponseDto.getItem().getName())));
 
         verify(bookingService, times(1))
                 .findBookingByOwner(anyInt(), anyString(), anyInt(), anyInt());
     }
+
+    @Test
+    void getByUserAfterCursor() throws Exception {
+        when(bookingService.findBookingByUser(anyInt(), anyString(), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of(bookingResponseDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .param("state", "ALL")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id", is(bookingResponseDto.getId()), Integer.class))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.after(bookingResponseDto).encode()));
+
+        verify(bookingService, times(1))
+                .findBookingByUser(user.getId(), "ALL", BookingCursor.first(), 1);
+    }
+
+    @Test
+    void getByOwnerAfterLastCursor() throws Exception {
+        BookingCursor cursor = BookingCursor.after(bookingResponseDto);
+        when(bookingService.findBookingByOwner(anyInt(), anyString(), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("cursor", cursor.encode())
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService, times(1))
+                .findBookingByOwner(owner.getId(), "ALL", cursor, 5);
+    }
+
+    @Test
+    void getByUserWithWrongCursor() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", user.getId())
+                        .param("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.dto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -30,7 +31,8 @@ class BookingMapperTest {
                 LocalDateTime.now().plusDays(2),
                 item,
                 user,
-                BookingStatus.WAITING.WAITING);
+                BookingStatus.WAITING.WAITING,
+                BookingPhase.FUTURE);
     }
 
     @Test
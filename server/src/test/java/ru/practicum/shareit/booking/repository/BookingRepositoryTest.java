@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
+
+    User owner;
+    User booker;
+    List<Booking> bookings;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(1, "owner", "owner@mail.ru"));
+        booker = userRepository.save(new User(2, "booker", "booker@mail.ru"));
+        Item item = itemRepository.save(new Item(1, "item", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookings.add(bookingRepository.save(new Booking(0, start.plusDays(i / 2), start.plusDays(i / 2 + 1),
+                    item, booker, BookingStatus.WAITING, BookingPhase.FUTURE)));
+        }
+    }
+
+    @Test
+    void findSeekByBookerIdWalksAllPagesWithoutGapsOrDuplicates() {
+        List<Integer> expected = bookings.stream()
+                .sorted((b1, b2) -> b1.getStart().equals(b2.getStart())
+                        ? Integer.compare(b2.getId(), b1.getId())
+                        : b2.getStart().compareTo(b1.getStart()))
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        List<Integer> walked = new ArrayList<>();
+        BookingCursor cursor = BookingCursor.first();
+        List<BookingResponseDto> page;
+        do {
+            page = bookingRepository.findSeekByBookerId(booker.getId(), cursor.getStart(), cursor.getId(),
+                    PageRequest.of(0, 2));
+            page.forEach(booking -> walked.add(booking.getId()));
+            if (!page.isEmpty()) {
+                BookingResponseDto last = page.get(page.size() - 1);
+                cursor = new BookingCursor(last.getStart(), last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void findSeekStatusByItemsOwnerId() {
+        BookingResponseDto first = bookingRepository.findSeekStatusByItemsOwnerId(owner.getId(), BookingStatus.WAITING,
+                BookingCursor.first().getStart(), BookingCursor.first().getId(), PageRequest.of(0, 1)).get(0);
+        List<BookingResponseDto> next = bookingRepository.findSeekStatusByItemsOwnerId(owner.getId(), BookingStatus.WAITING,
+                first.getStart(), first.getId(), PageRequest.of(0, 10));
+
+        assertEquals(bookings.size() - 1, next.size());
+    }
+
+    @Test
+    void findAllByItemsOwnerIdSelectsResponseInOneStatement() {
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        List<BookingResponseDto> page = bookingRepository.findAllByItemsOwnerId(owner.getId(), PageRequest.of(0, 10));
+
+        assertEquals(bookings.size(), page.size());
+        assertEquals(booker.getId(), page.get(0).getBooker().getId());
+        assertEquals(booker.getEmail(), page.get(0).getBooker().getEmail());
+        assertEquals("item", page.get(0).getItem().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updatePhaseOfStartedAndEndedMovesBookingsBetweenPhases() {
+        LocalDateTime now = bookings.get(2).getStart();
+
+        int ended = bookingRepository.updatePhaseOfEnded(now);
+        int started = bookingRepository.updatePhaseOfStarted(now);
+        em.clear();
+
+        assertEquals(2, ended);
+        assertEquals(2, started);
+        assertEquals(2, bookingRepository.findAllByBookerIdAndPhaseOrderByStartDesc(booker.getId(),
+                BookingPhase.PAST, PageRequest.of(0, 10)).size());
+        assertEquals(Set.of(bookings.get(2).getId(), bookings.get(3).getId()),
+                bookingRepository.findAllPhaseByItemsOwnerId(owner.getId(), BookingPhase.CURRENT,
+                        PageRequest.of(0, 10)).stream().map(BookingResponseDto::getId).collect(Collectors.toSet()));
+        assertEquals(1, bookingRepository.findAllByPhaseNot(BookingPhase.CURRENT).stream()
+                .filter(booking -> booking.getPhase() == BookingPhase.FUTURE).count());
+    }
+
+    @Test
+    void updatePhaseDoesNotMoveFinishedBookingBack() {
+        List<Integer> ids = List.of(bookings.get(0).getId());
+
+        int ended = bookingRepository.updatePhase(ids, List.of(BookingPhase.FUTURE, BookingPhase.CURRENT),
+                BookingPhase.PAST);
+        int started = bookingRepository.updatePhase(ids, List.of(BookingPhase.FUTURE), BookingPhase.CURRENT);
+        em.clear();
+
+        assertEquals(1, ended);
+        assertEquals(0, started);
+        assertEquals(List.of(bookings.get(0).getId()), bookingRepository.findAllByBookerIdAndPhaseOrderByStartDesc(
+                booker.getId(), BookingPhase.PAST, PageRequest.of(0, 10)).stream()
+                .map(BookingResponseDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllByStatusAndStartBeforeForUpdateAndUpdateStatus() {
+        LocalDateTime now = bookings.get(2).getStart();
+        List<Booking> stale = bookingRepository.findAllByStatusAndStartBeforeForUpdate(BookingStatus.WAITING, now,
+                PageRequest.of(0, 3));
+
+        assertEquals(3, stale.size());
+
+        int updated = bookingRepository.updateStatus(stale.stream().map(Booking::getId).collect(Collectors.toList()),
+                BookingStatus.WAITING, BookingStatus.EXPIRED);
+        em.clear();
+
+        assertEquals(3, updated);
+        assertEquals(3, bookingRepository.findAllStatusByItemsOwnerId(owner.getId(), BookingStatus.EXPIRED,
+                PageRequest.of(0, 10)).size());
+        assertEquals(2, bookingRepository.findAllStatusByItemsOwnerId(owner.getId(), BookingStatus.WAITING,
+                PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void findLastAndNextBookingsSkipRejectedAndExpired() {
+        bookings.get(2).setStatus(BookingStatus.REJECTED);
+        bookings.get(3).setStatus(BookingStatus.EXPIRED);
+        bookingRepository.saveAll(bookings.subList(2, 4));
+        List<Integer> itemIds = List.of(bookings.get(0).getItem().getId());
+        LocalDateTime start = bookings.get(0).getStart();
+
+        assertEquals(List.of(bookings.get(4).getId()), bookingRepository
+                .findNextBookingsByItemIds(itemIds, start.plusHours(1)).stream()
+                .map(Booking::getId).collect(Collectors.toList()));
+        assertEquals(List.of(bookings.get(0).getId(), bookings.get(1).getId()), bookingRepository
+                .findLastBookingsByItemIds(itemIds, start.plusDays(1).plusHours(1)).stream()
+                .map(Booking::getId).collect(Collectors.toList()));
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+}
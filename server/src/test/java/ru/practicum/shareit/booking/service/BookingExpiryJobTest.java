@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ResourceVersion;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingExpiryJobTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Item item = new Item(1, "item", "description", true, null, null);
+    private BookingRepository bookingRepository;
+    private MeterRegistry meterRegistry;
+    private BookingExpiryJob bookingExpiryJob;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        bookingExpiryJob = new BookingExpiryJob(bookingRepository, new BookingIntervalIndex(bookingRepository),
+                new ItemBookingIndex(bookingRepository, 100), new ResourceVersion(), mock(PlatformTransactionManager.class), meterRegistry, 2);
+    }
+
+    @Test
+    void expireRunsBatchesUntilLastBatchIsNotFull() {
+        when(bookingRepository.findAllByStatusAndStartBeforeForUpdate(eq(BookingStatus.WAITING), eq(now), any()))
+                .thenReturn(List.of(booking(1), booking(2)), List.of(booking(3)));
+
+        assertEquals(3, bookingExpiryJob.expire(now));
+
+        verify(bookingRepository).updateStatus(List.of(1, 2), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        verify(bookingRepository).updateStatus(List.of(3), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        assertEquals(3, meterRegistry.summary("shareit.booking.expiry.expired").totalAmount());
+        assertEquals(1, meterRegistry.timer("shareit.booking.expiry.duration").count());
+    }
+
+    @Test
+    void expireWithoutStaleBookingsDoesNotUpdate() {
+        when(bookingRepository.findAllByStatusAndStartBeforeForUpdate(any(), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, bookingExpiryJob.expire(now));
+
+        verify(bookingRepository, times(1)).findAllByStatusAndStartBeforeForUpdate(any(), any(), any());
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+        assertEquals(1, meterRegistry.summary("shareit.booking.expiry.expired").count());
+    }
+
+    private Booking booking(int id) {
+        return new Booking(id, now.minusHours(1), now.plusHours(1), item, null, BookingStatus.WAITING,
+                BookingPhase.CURRENT);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    private static final int BOOKINGS = 20_000;
+
+    private final LocalDateTime origin = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    private final Item item = new Item(1, "item", "description", true, new User(1, "owner", "owner@email.ru"),
+            null);
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+    }
+
+    @Test
+    void reserveBetweenThousandsOfBookings() {
+        List<Booking> loaded = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            loaded.add(booking(i + 1, origin.plusHours(2L * i), origin.plusHours(2L * i + 1)));
+        }
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any())).thenReturn(loaded);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < BOOKINGS; i++) {
+                bookingIntervalIndex.reserve(booking(BOOKINGS + i + 1, origin.plusHours(2L * i + 1),
+                        origin.plusHours(2L * i + 2)));
+            }
+        });
+
+        assertThrows(ValidateException.class, () -> bookingIntervalIndex.reserve(booking(3 * BOOKINGS,
+                origin.plusHours(BOOKINGS).plusMinutes(30), origin.plusHours(BOOKINGS + 1).plusMinutes(30))));
+    }
+
+    @Test
+    void reserveOverlappingLegacyBookingIsRejected() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any())).thenReturn(List.of(
+                booking(1, origin, origin.plusDays(3)),
+                booking(2, origin.plusHours(2), origin.plusHours(3)),
+                booking(3, origin.plusDays(4), origin.plusDays(5))));
+
+        assertThrows(ValidateException.class, () -> bookingIntervalIndex.reserve(booking(4, origin.plusDays(1),
+                origin.plusDays(2))));
+        assertThrows(ValidateException.class, () -> bookingIntervalIndex.reserve(booking(5, origin.plusHours(1),
+                origin.plusHours(4))));
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(booking(6, origin.plusDays(3), origin.plusDays(4))));
+    }
+
+    @Test
+    void releasedLegacyBookingNoLongerBlocks() {
+        Booking longBooking = booking(1, origin, origin.plusDays(3));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any())).thenReturn(List.of(
+                booking(2, origin.plusHours(2), origin.plusHours(3)), longBooking));
+
+        bookingIntervalIndex.release(longBooking);
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(booking(3, origin.plusDays(1), origin.plusDays(2))));
+    }
+
+    @Test
+    void findSlotsWithFarBookingEndDoesNotGrowBitmap() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any())).thenReturn(List.of(
+                booking(1, origin.plusHours(2), LocalDateTime.of(999_999, 1, 1, 0, 0))));
+
+        List<AvailabilitySlotDto> slots = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> bookingIntervalIndex.findSlots(1, origin, origin.plusHours(5)));
+
+        assertEquals(List.of(new AvailabilitySlotDto(origin, origin.plusHours(2), true),
+                new AvailabilitySlotDto(origin.plusHours(2), origin.plusHours(5), false)), slots);
+    }
+
+    @Test
+    void findSlotsBeyondHorizonUsesIntervals() {
+        LocalDateTime far = origin.plusDays(500);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any())).thenReturn(List.of(
+                booking(1, origin, origin.plusHours(1)),
+                booking(2, far.plusHours(2), far.plusHours(4))));
+
+        bookingIntervalIndex.findSlots(1, origin, origin.plusHours(2));
+        List<AvailabilitySlotDto> slots = bookingIntervalIndex.findSlots(1, far, far.plusHours(6));
+
+        assertEquals(List.of(new AvailabilitySlotDto(far, far.plusHours(2), true),
+                new AvailabilitySlotDto(far.plusHours(2), far.plusHours(4), false),
+                new AvailabilitySlotDto(far.plusHours(4), far.plusHours(6), true)), slots);
+    }
+
+    private Booking booking(int id, LocalDateTime start, LocalDateTime end) {
+        return new Booking(id, start, end, item, null, BookingStatus.WAITING, BookingPhase.FUTURE);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ResourceVersion;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingPhaseSchedulerTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final ResourceVersion resourceVersion = new ResourceVersion();
+    private BookingRepository bookingRepository;
+    private BookingPhaseScheduler bookingPhaseScheduler;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        bookingPhaseScheduler = new BookingPhaseScheduler(bookingRepository, resourceVersion);
+    }
+
+    @Test
+    void initCatchesUpAndQueuesUpcomingTransitions() {
+        when(bookingRepository.findAllByPhaseNot(BookingPhase.PAST)).thenReturn(List.of(
+                booking(1, now.plusHours(1), now.plusHours(2), BookingPhase.FUTURE),
+                booking(2, now.minusHours(1), now.plusHours(1), BookingPhase.CURRENT)));
+
+        bookingPhaseScheduler.init();
+
+        verify(bookingRepository).updatePhaseOfEnded(any());
+        verify(bookingRepository).updatePhaseOfStarted(any());
+        assertEquals(3, bookingPhaseScheduler.pending());
+    }
+
+    @Test
+    void initKeepsBookingsScheduledWhileLoading() {
+        Booking scheduledDuringInit = booking(3, now.plusHours(5), now.plusHours(6), BookingPhase.FUTURE);
+        Booking alreadyScheduled = booking(1, now.plusHours(1), now.plusHours(2), BookingPhase.FUTURE);
+        bookingPhaseScheduler.schedule(alreadyScheduled);
+        when(bookingRepository.findAllByPhaseNot(BookingPhase.PAST)).thenAnswer(invocation -> {
+            bookingPhaseScheduler.schedule(scheduledDuringInit);
+            return List.of(alreadyScheduled);
+        });
+
+        bookingPhaseScheduler.init();
+
+        assertEquals(4, bookingPhaseScheduler.pending());
+    }
+
+    @Test
+    void advanceAppliesOnlyDueTransitionsInPhaseOrder() {
+        bookingPhaseScheduler.schedule(booking(1, now.plusHours(1), now.plusHours(2), BookingPhase.FUTURE));
+        bookingPhaseScheduler.schedule(booking(2, now.plusHours(3), now.plusHours(4), BookingPhase.FUTURE));
+
+        bookingPhaseScheduler.advance(now);
+        verify(bookingRepository, never()).updatePhase(anyCollection(), anyCollection(), any());
+        String version = resourceVersion.current();
+
+        bookingPhaseScheduler.advance(now.plusHours(2));
+
+        var order = inOrder(bookingRepository);
+        order.verify(bookingRepository).updatePhase(List.of(1), List.of(BookingPhase.FUTURE), BookingPhase.CURRENT);
+        order.verify(bookingRepository).updatePhase(List.of(1), List.of(BookingPhase.FUTURE, BookingPhase.CURRENT),
+                BookingPhase.PAST);
+        assertEquals(2, bookingPhaseScheduler.pending());
+        assertNotEquals(version, resourceVersion.current());
+    }
+
+    @Test
+    void advanceRequeuesTransitionsWhenUpdateFails() {
+        bookingPhaseScheduler.schedule(booking(1, now.plusHours(1), now.plusHours(2), BookingPhase.FUTURE));
+        when(bookingRepository.updatePhase(anyCollection(), anyCollection(), any())).thenThrow(new IllegalStateException());
+
+        bookingPhaseScheduler.advance(now.plusHours(1));
+
+        assertEquals(2, bookingPhaseScheduler.pending());
+    }
+
+    @Test
+    void retriedTransitionDoesNotMoveFinishedBookingBack() {
+        bookingPhaseScheduler.schedule(booking(1, now.plusHours(1), now.plusHours(2), BookingPhase.FUTURE));
+        when(bookingRepository.updatePhase(anyCollection(), anyCollection(), eq(BookingPhase.CURRENT)))
+                .thenThrow(new IllegalStateException())
+                .thenReturn(0);
+
+        bookingPhaseScheduler.advance(now.plusHours(2));
+        assertEquals(1, bookingPhaseScheduler.pending());
+        bookingPhaseScheduler.advance(now.plusHours(2));
+
+        verify(bookingRepository).updatePhase(List.of(1), List.of(BookingPhase.FUTURE, BookingPhase.CURRENT),
+                BookingPhase.PAST);
+        verify(bookingRepository, times(2)).updatePhase(List.of(1), List.of(BookingPhase.FUTURE),
+                BookingPhase.CURRENT);
+        assertEquals(0, bookingPhaseScheduler.pending());
+    }
+
+    private static Booking booking(int id, LocalDateTime start, LocalDateTime end, BookingPhase phase) {
+        return new Booking(id, start, end, null, null, BookingStatus.WAITING, phase);
+    }
+}
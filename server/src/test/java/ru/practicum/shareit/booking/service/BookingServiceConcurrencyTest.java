@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingStateException;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking-expiry.enabled=false"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceConcurrencyTest {
+    private static final int REQUESTS = 200;
+    private static final int THREADS = 32;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(0, "owner", "concurrency-owner@email.ru"));
+        booker = userRepository.save(new User(0, "booker", "concurrency-booker@email.ru"));
+        item = itemRepository.save(new Item(0, "item", "description", true, owner, null));
+    }
+
+    @Test
+    void overlappingBookingsForSameItemAreNotDoubleBooked() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        int succeeded = runConcurrently(() -> bookingService.addBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1))), unexpected);
+
+        assertTrue(unexpected.isEmpty(), unexpected::toString);
+        assertEquals(1, succeeded);
+        assertEquals(1, findBookings().size());
+    }
+
+    @Test
+    void concurrentApprovalsOfSameBookingApproveOnce() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingResponseDto booking = bookingService.addBooking(booker.getId(),
+                new BookingRequestDto(item.getId(), start, start.plusDays(1)));
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        int succeeded = runConcurrently(() -> bookingService.approveBooking(owner.getId(), booking.getId(), true),
+                unexpected);
+
+        assertTrue(unexpected.isEmpty(), unexpected::toString);
+        assertEquals(1, succeeded);
+        Booking approved = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertEquals(1, approved.getVersion());
+    }
+
+    @Test
+    void addBookingIncrementsItemVersion() {
+        long version = itemRepository.findById(item.getId()).orElseThrow().getVersion();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        bookingService.addBooking(booker.getId(), new BookingRequestDto(item.getId(), start, start.plusDays(1)));
+
+        assertEquals(version + 1, itemRepository.findById(item.getId()).orElseThrow().getVersion());
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteAll(findBookings());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteAll(List.of(owner, booker));
+    }
+
+    private List<Booking> findBookings() {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId() == item.getId())
+                .collect(Collectors.toList());
+    }
+
+    private int runConcurrently(Callable<?> request, Queue<Throwable> unexpected) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    request.call();
+                    succeeded.incrementAndGet();
+                } catch (ValidateException | BookingStateException | ConcurrencyFailureException e) {
+                    return null;
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return succeeded.get();
+    }
+}
@@ -1,31 +1,51 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingApproveResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ResourceVersion;
 import ru.practicum.shareit.exception.BookingStateException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.MessageFailedException;
+import ru.practicum.shareit.exception.ValidateException;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingIndex;
+import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -48,7 +68,11 @@ public class BookingServiceTest {
 
     @BeforeEach
     void beforeEach() {
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository,
+                new UserCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)), itemRepository,
+                new BookingIntervalIndex(bookingRepository), new ItemBookingIndex(bookingRepository, 100),
+                new BookingPhaseScheduler(bookingRepository, new ResourceVersion()),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
         user = new User(1, "userName", "user@email.ru");
         owner = new User(2, "ownerName", "owner@email");
         item = new Item(1, "item1", "description1", true, owner, null);
@@ -58,18 +82,19 @@ public class BookingServiceTest {
                 LocalDateTime.now().plusDays(2),
                 item,
                 user,
-                BookingStatus.WAITING);
+                BookingStatus.WAITING,
+                BookingPhase.FUTURE);
         bookingResponseDto = new BookingResponseDto(
                 1,
                 LocalDateTime.of(2022, 12, 12, 12, 12, 12),
                 LocalDateTime.of(2022, 12, 15, 12, 12, 12),
                 BookingStatus.WAITING,
-                user,
-                item);
+                UserMapper.toUserDto(user),
+                ItemMapper.toItemDto(item));
         bookingRequestDto = new BookingRequestDto(
                 1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2));
         bookingResponseDto = new BookingResponseDto(1, booking.getStart(),
-                booking.getEnd(), booking.getStatus(), user, item);
+                booking.getEnd(), booking.getStatus(), UserMapper.toUserDto(user), ItemMapper.toItemDto(item));
         bookingRequestDto = new BookingRequestDto(bookingResponseDto.getItem().getId(),
                 bookingResponseDto.getStart(), bookingResponseDto.getEnd());
     }
@@ -77,7 +102,7 @@ public class BookingServiceTest {
     @Test
     void addBooking() {
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingResponseDto bookingDto = bookingService.addBooking(user.getId(), bookingRequestDto);
@@ -89,10 +114,70 @@ public class BookingServiceTest {
         assertEquals(booking.getStatus(), bookingDto.getStatus());
     }
 
+    @Test
+    void addBookingWithOverlap() {
+        Booking approved = new Booking(2, booking.getStart().minusHours(1), booking.getStart().plusHours(1),
+                item, owner, BookingStatus.APPROVED, BookingPhase.FUTURE);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any()))
+                .thenReturn(List.of(approved));
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        assertThrows(ValidateException.class, () -> bookingService.addBooking(user.getId(), bookingRequestDto));
+    }
+
+    @Test
+    void addBookingOverlappingLongLegacyBookingBeforeShorterOne() {
+        Booking longBooking = new Booking(2, booking.getStart().minusDays(1), booking.getEnd().plusDays(1),
+                item, owner, BookingStatus.APPROVED, BookingPhase.FUTURE);
+        Booking shortBooking = new Booking(3, booking.getStart().minusHours(12), booking.getStart().minusHours(6),
+                item, owner, BookingStatus.APPROVED, BookingPhase.FUTURE);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndIsAfter(anyInt(), any(), any()))
+                .thenReturn(List.of(longBooking, shortBooking));
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        assertThrows(ValidateException.class, () -> bookingService.addBooking(user.getId(), bookingRequestDto));
+    }
+
+    @Test
+    void addBookingEndingTooFarRejected() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
+        bookingRequestDto.setEnd(LocalDateTime.of(9999, 1, 1, 0, 0));
+
+        assertThrows(ValidateException.class, () -> bookingService.addBooking(user.getId(), bookingRequestDto));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void addBookingAfterOverlappingRejected() {
+        Booking waiting = new Booking(2, booking.getStart(), booking.getEnd(), item, owner,
+                BookingStatus.WAITING, BookingPhase.FUTURE);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any())).thenReturn(waiting);
+        bookingService.addBooking(user.getId(), bookingRequestDto);
+
+        when(bookingRepository.save(any())).thenReturn(booking);
+        assertThrows(ValidateException.class, () -> bookingService.addBooking(user.getId(), bookingRequestDto));
+
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(owner));
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(waiting));
+        when(bookingRepository.save(any())).thenReturn(waiting);
+        bookingService.approveBooking(owner.getId(), waiting.getId(), false);
+
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(bookingRepository.save(any())).thenReturn(booking);
+        assertEquals(booking.getId(), bookingService.addBooking(user.getId(), bookingRequestDto).getId());
+    }
+
     @Test
     void addBookingWithEmptyUser() {
         when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         Exception ex = assertThrows(EntityNotFoundException.class,
@@ -103,19 +188,19 @@ public class BookingServiceTest {
     @Test
     void findBookingById() {
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
 
         BookingResponseDto bookingResponseDto = bookingService.findBookingById(owner.getId(), booking.getId());
 
         assertNotNull(bookingResponseDto);
         assertEquals(booking.getId(), bookingResponseDto.getId());
-        assertEquals(booking.getBooker(), bookingResponseDto.getBooker());
+        assertEquals(booking.getBooker().getId(), bookingResponseDto.getBooker().getId());
     }
 
     @Test
     void findBookingByWrongId() {
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.empty());
-        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(itemRepository.findForBookingById(anyInt())).thenReturn(Optional.of(item));
 
         assertThrows(EntityNotFoundException.class,
                 () -> bookingService.findBookingById(owner.getId(), booking.getId()));
@@ -159,18 +244,73 @@ public class BookingServiceTest {
                 () -> bookingService.approveBooking(user.getId(), booking.getId(), true));
     }
 
+    @Test
+    void approveBookingsReturnsResultPerId() {
+        Booking approved = new Booking(2, booking.getStart().plusDays(5), booking.getEnd().plusDays(5), item, user,
+                BookingStatus.APPROVED, BookingPhase.FUTURE);
+        Item foreignItem = new Item(2, "item2", "description2", true, user, null);
+        Booking foreign = new Booking(3, booking.getStart().plusDays(10), booking.getEnd().plusDays(10), foreignItem,
+                owner, BookingStatus.WAITING, BookingPhase.FUTURE);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(owner));
+        when(bookingRepository.findAllWithItemByIdIn(any())).thenReturn(List.of(booking, approved, foreign));
+        when(bookingRepository.updateStatus(any(), any(), any())).thenReturn(1);
+
+        List<BookingApproveResultDto> results = bookingService.approveBookings(owner.getId(), List.of(1, 2, 3, 4, 1),
+                true);
+
+        assertEquals(4, results.size());
+        assertEquals(new BookingApproveResultDto(1, BookingStatus.APPROVED, null), results.get(0));
+        assertEquals(BookingStatus.APPROVED, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertNull(results.get(3).getStatus());
+        assertNotNull(results.get(3).getError());
+        verify(bookingRepository).findAllWithItemByIdIn(Set.of(1, 2, 3, 4));
+        verify(bookingRepository).updateStatus(List.of(1), BookingStatus.WAITING, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void approveBookingsRetriesWhenBookingChangedConcurrently() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(owner));
+        when(bookingRepository.findAllWithItemByIdIn(any())).thenReturn(List.of(booking));
+        when(bookingRepository.updateStatus(any(), any(), any())).thenReturn(0, 1);
+
+        List<BookingApproveResultDto> results = bookingService.approveBookings(owner.getId(), List.of(1), false);
+
+        assertEquals(List.of(new BookingApproveResultDto(1, BookingStatus.REJECTED, null)), results);
+        verify(bookingRepository, times(2)).updateStatus(List.of(1), BookingStatus.WAITING, BookingStatus.REJECTED);
+    }
+
+    @Test
+    void approveBookingsWithoutValidIdsDoesNotUpdate() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(owner));
+
+        List<BookingApproveResultDto> results = bookingService.approveBookings(owner.getId(), List.of(5), false);
+
+        assertEquals(1, results.size());
+        assertNotNull(results.get(0).getError());
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void findBookingWithSizeAboveLimitIsRejected() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+
+        assertThrows(ValidateException.class, () -> bookingService.findBookingByUser(user.getId(), "ALL", 0,
+                BookingService.MAX_PAGE_SIZE + 1));
+        assertThrows(ValidateException.class, () -> bookingService.findBookingByOwner(user.getId(), "ALL",
+                BookingCursor.first(), BookingService.MAX_PAGE_SIZE + 1));
+        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(anyInt(), any());
+    }
+
     @Test
     void findBookingByUser() {
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyInt(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyInt(),
-                any(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyInt(),
-                any(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyInt(),
-                any(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyInt(), any())).thenReturn(List.of(bookingResponseDto));
+        when(bookingRepository.findAllByBookerIdAndPhaseOrderByStartDesc(anyInt(),
+                any(), any())).thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(anyInt(),
-                any(), any())).thenReturn(List.of(booking));
+                any(), any())).thenReturn(List.of(bookingResponseDto));
 
         List<BookingResponseDto> bookings = bookingService.findBookingByUser(user.getId(), "ALL",
                 1,10);
@@ -240,18 +380,29 @@ public class BookingServiceTest {
         assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
 
+    @Test
+    void findBookingByUserCurrentIsPagedAndCapped() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+
+        bookingService.findBookingByUser(user.getId(), "CURRENT", 0, 10);
+        bookingService.findBookingByUser(user.getId(), "CURRENT", 0, 100);
+        assertThrows(ValidateException.class, () ->
+                bookingService.findBookingByUser(user.getId(), "CURRENT", 0, 100_000));
+
+        verify(bookingRepository).findAllByBookerIdAndPhaseOrderByStartDesc(anyInt(),
+                eq(BookingPhase.CURRENT), eq(PageRequest.of(0, 10)));
+        verify(bookingRepository).findAllByBookerIdAndPhaseOrderByStartDesc(anyInt(),
+                eq(BookingPhase.CURRENT), eq(PageRequest.of(0, 100)));
+    }
+
     @Test
     void findBookingByOwner() {
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemsOwnerId(anyInt(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findAllCurrentByItemsOwnerId(anyInt(),
-                any(), any(), any())).thenReturn(List.of(booking));
-        when(bookingRepository.findAllPastByItemsOwnerId(anyInt(), any(), any()))
-                .thenReturn(List.of(booking));
-        when(bookingRepository.findAllFutureByItemsOwnerId(anyInt(), any(), any()))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItemsOwnerId(anyInt(), any())).thenReturn(List.of(bookingResponseDto));
+        when(bookingRepository.findAllPhaseByItemsOwnerId(anyInt(), any(), any()))
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllStatusByItemsOwnerId(anyInt(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
 
         List<BookingResponseDto> bookings = bookingService.findBookingByOwner(user.getId(), "ALL",
                 1, 10);
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter idempotencyFilter = new IdempotencyFilter(
+            new IdempotencyStore(10, Duration.ofMinutes(1), Clock.systemUTC()));
+
+    @Test
+    void bufferedBodyCanBeReadWithReadListener() throws Exception {
+        String body = "{\"description\":\"Нужна дрель\"}";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/requests");
+        request.addHeader("X-Sharer-User-Id", "1");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "request-1");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, filteredResponse) -> {
+            ServletInputStream inputStream = filteredRequest.getInputStream();
+            inputStream.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    while (inputStream.isReady() && !inputStream.isFinished()) {
+                        int length = inputStream.read(buffer);
+                        if (length > 0) {
+                            read.write(buffer, 0, length);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    throw new AssertionError(throwable);
+                }
+            });
+        });
+
+        assertEquals(body, read.toString(StandardCharsets.UTF_8));
+        assertTrue(allDataRead.get());
+    }
+}
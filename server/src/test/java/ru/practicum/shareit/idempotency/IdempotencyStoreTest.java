@@ -0,0 +1,108 @@
+package ru.practicum.shareit.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+    private final byte[] fingerprint = {1, 2, 3};
+    private final MutableClock clock = new MutableClock();
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(2, Duration.ofMinutes(1), clock);
+
+    @Test
+    void beginReturnsPendingEntryWhileRequestIsInFlight() {
+        assertNull(idempotencyStore.begin("key", fingerprint));
+
+        IdempotencyStore.Entry entry = idempotencyStore.begin("key", fingerprint);
+
+        assertNotNull(entry);
+        assertNull(entry.getResponse());
+        assertTrue(entry.matches(new byte[]{1, 2, 3}));
+        assertFalse(entry.matches(new byte[]{3, 2, 1}));
+    }
+
+    @Test
+    void beginReturnsCompletedResponse() {
+        idempotencyStore.begin("key", fingerprint);
+        idempotencyStore.complete("key", new IdempotencyStore.StoredResponse(200, "application/json", new byte[]{42}));
+
+        IdempotencyStore.StoredResponse response = idempotencyStore.begin("key", fingerprint).getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertArrayEquals(new byte[]{42}, response.getBody());
+    }
+
+    @Test
+    void abortReleasesKey() {
+        idempotencyStore.begin("key", fingerprint);
+        idempotencyStore.abort("key");
+
+        assertNull(idempotencyStore.begin("key", fingerprint));
+    }
+
+    @Test
+    void abortKeepsCompletedResponse() {
+        idempotencyStore.begin("key", fingerprint);
+        idempotencyStore.complete("key", new IdempotencyStore.StoredResponse(200, null, new byte[0]));
+        idempotencyStore.abort("key");
+
+        assertNotNull(idempotencyStore.begin("key", fingerprint).getResponse());
+    }
+
+    @Test
+    void beginForgetsExpiredEntry() {
+        idempotencyStore.begin("key", fingerprint);
+        idempotencyStore.complete("key", new IdempotencyStore.StoredResponse(200, null, new byte[0]));
+        clock.advance(Duration.ofMinutes(2));
+
+        assertNull(idempotencyStore.begin("key", fingerprint));
+    }
+
+    @Test
+    void beginEvictsLeastRecentlyUsedEntryWhenFull() {
+        idempotencyStore.begin("key1", fingerprint);
+        idempotencyStore.begin("key2", fingerprint);
+        idempotencyStore.begin("key1", fingerprint);
+        idempotencyStore.begin("key3", fingerprint);
+
+        assertEquals(2, idempotencyStore.size());
+        assertNotNull(idempotencyStore.begin("key1", fingerprint));
+        assertNull(idempotencyStore.begin("key2", fingerprint));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2022-12-12T12:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
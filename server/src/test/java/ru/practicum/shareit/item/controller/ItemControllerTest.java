@@ -7,9 +7,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.ResourceVersion;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Item;
@@ -29,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(ResourceVersion.class)
 @AutoConfigureMockMvc
 public class ItemControllerTest {
 
@@ -167,7 +172,7 @@ public class ItemControllerTest {
 
     @Test
     void searchItem() throws Exception {
-        when(itemService.search(anyString(), anyInt(), anyInt(), anyInt())).thenReturn(List.of(itemResponseDto));
+        when(itemService.search(anyString(), anyInt(), anyInt(), anyInt(), any(), anyBoolean(), any(), any())).thenReturn(List.of(itemResponseDto));
 
         mockMvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", "1")
@@ -185,6 +190,26 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].description", is(itemResponseDto.getDescription()), String.class))
                 .andExpect(jsonPath("$[0].available", is(itemResponseDto.getAvailable())));
 
-        verify(itemService, times(1)).search(anyString(), anyInt(), anyInt(), anyInt());
+        verify(itemService, times(1)).search(anyString(), anyInt(), anyInt(), anyInt(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        when(itemService.getAvailability(anyInt(), anyInt(), any(), any())).thenReturn(new ItemAvailabilityDto(1,
+                from, to, List.of(new AvailabilitySlotDto(from, to, true))));
+
+        mockMvc.perform(get("/items/{itemId}/availability", 1)
+                        .header("X-Sharer-User-Id", "1")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1)))
+                .andExpect(jsonPath("$.slots", hasSize(1)))
+                .andExpect(jsonPath("$.slots[0].available", is(true)));
+
+        verify(itemService, times(1)).getAvailability(1, 1, from, to);
     }
 }
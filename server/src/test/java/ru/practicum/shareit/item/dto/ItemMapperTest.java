@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
@@ -51,7 +52,7 @@ class ItemMapperTest {
 
     @Test
     void toItemResponseDto() {
-        ItemResponseDto responseDto = ItemMapper.toItemResponseDto(item, null, null, new ArrayList<>());
+        ItemResponseDto responseDto = ItemMapper.toItemResponseDto(item, (Booking) null, null, new ArrayList<>());
         assertNotNull(responseDto);
         assertEquals(item.getId(), responseDto.getId());
         assertEquals(item.getName(), responseDto.getName());
@@ -6,6 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -14,6 +18,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -27,6 +32,8 @@ class ItemRepositoryTest {
     UserRepository userRepository;
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    BookingRepository bookingRepository;
 
     Item item1;
     Item item2;
@@ -55,6 +62,25 @@ class ItemRepositoryTest {
         assertEquals(item1.getAvailable(), items.get(0).getAvailable());
     }
 
+    @Test
+    void searchFreeItemsByTextSkipsItemsWithOverlappingApprovedBooking() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 12, 0);
+        bookingRepository.save(new Booking(0, start.minusDays(1), start.plusHours(1), item1, user2,
+                BookingStatus.APPROVED, BookingPhase.FUTURE));
+        bookingRepository.save(new Booking(0, start.minusDays(1), start.plusHours(1), item2, user1,
+                BookingStatus.REJECTED, BookingPhase.FUTURE));
+
+        List<Item> items = itemRepository.searchFreeItemsByText("descr", start, start.plusDays(2),
+                Pageable.ofSize(15));
+        List<Item> later = itemRepository.searchFreeItemsByText("descr", start.plusHours(1), start.plusDays(2),
+                Pageable.ofSize(15));
+
+        assertEquals(List.of(item2.getId()), items.stream().map(Item::getId).collect(Collectors.toList()));
+        assertEquals(2, later.size());
+        assertEquals(List.of(item1.getId()), bookingRepository.findItemIdsBookedBetween(BookingStatus.APPROVED,
+                start, start.plusDays(2)));
+    }
+
     @Test
     void searchItemsByText() {
         List<Item> items = itemRepository.searchItemsByText("ion2", Pageable.ofSize(15));
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemBookingIndexTest {
+
+    private final User owner = new User(1, "owner", "owner@email.ru");
+    private final User booker = new User(2, "booker", "booker@email.ru");
+    private final Item item = new Item(1, "item", "description", true, owner, null);
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Booking last = new Booking(1, now.minusDays(2), now.minusDays(1), item, booker,
+            BookingStatus.APPROVED, BookingPhase.PAST);
+    private final Booking next = new Booking(2, now.plusDays(2), now.plusDays(3), item, booker,
+            BookingStatus.APPROVED, BookingPhase.FUTURE);
+    private BookingRepository bookingRepository;
+    private ItemBookingIndex itemBookingIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findLastBookingsByItemIds(any(), any())).thenReturn(List.of(last));
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenReturn(List.of(next));
+        itemBookingIndex = new ItemBookingIndex(bookingRepository, 2);
+    }
+
+    @Test
+    void findLoadsOnceUntilNextBookingStarts() {
+        ItemBookingIndex.ItemBookings itemBookings = itemBookingIndex.find(item.getId(), now);
+        itemBookingIndex.find(item.getId(), now.plusDays(1));
+
+        assertEquals(new BookingItemDto(last.getId(), booker.getId()), itemBookings.getLastBooking());
+        assertEquals(new BookingItemDto(next.getId(), booker.getId()), itemBookings.getNextBooking());
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(any(), any());
+
+        itemBookingIndex.find(item.getId(), next.getStart());
+
+        verify(bookingRepository, times(2)).findNextBookingsByItemIds(any(), any());
+    }
+
+    @Test
+    void addReplacesNextBookingWhenItStartsEarlier() {
+        itemBookingIndex.find(item.getId(), now);
+        itemBookingIndex.add(new Booking(3, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.WAITING,
+                BookingPhase.FUTURE));
+        itemBookingIndex.add(new Booking(4, now.plusDays(5), now.plusDays(6), item, booker, BookingStatus.WAITING,
+                BookingPhase.FUTURE));
+
+        ItemBookingIndex.ItemBookings itemBookings = itemBookingIndex.find(item.getId(), now);
+
+        assertEquals(new BookingItemDto(last.getId(), booker.getId()), itemBookings.getLastBooking());
+        assertEquals(new BookingItemDto(3, booker.getId()), itemBookings.getNextBooking());
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(any(), any());
+    }
+
+    @Test
+    void addIgnoresFinishedBooking() {
+        itemBookingIndex.find(item.getId(), now);
+        itemBookingIndex.add(new Booking(3, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.REJECTED,
+                BookingPhase.FUTURE));
+
+        assertEquals(new BookingItemDto(next.getId(), booker.getId()),
+                itemBookingIndex.find(item.getId(), now).getNextBooking());
+    }
+
+    @Test
+    void findEvictsLeastRecentlyUsedItem() {
+        itemBookingIndex.find(1, now);
+        itemBookingIndex.find(2, now);
+        itemBookingIndex.find(1, now);
+        itemBookingIndex.find(3, now);
+        itemBookingIndex.find(1, now);
+        itemBookingIndex.find(2, now);
+
+        assertEquals(2, itemBookingIndex.size());
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(List.of(1), now);
+        verify(bookingRepository, times(2)).findNextBookingsByItemIds(List.of(2), now);
+    }
+
+    @Test
+    void findDoesNotCacheItemChangedWhileLoading() {
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenAnswer(invocation -> {
+            itemBookingIndex.remove(item.getId());
+            return List.of(next);
+        }).thenReturn(List.of(next));
+
+        itemBookingIndex.find(item.getId(), now);
+        itemBookingIndex.find(item.getId(), now);
+
+        verify(bookingRepository, times(2)).findNextBookingsByItemIds(any(), any());
+    }
+
+    @Test
+    void removeForgetsItem() {
+        itemBookingIndex.find(item.getId(), now);
+        itemBookingIndex.remove(item.getId());
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenReturn(List.of());
+
+        assertNull(itemBookingIndex.find(item.getId(), now).getNextBooking());
+        verify(bookingRepository, times(2)).findNextBookingsByItemIds(any(), any());
+    }
+}
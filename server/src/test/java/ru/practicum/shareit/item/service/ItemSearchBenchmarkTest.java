@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Transactional
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemSearchBenchmarkTest {
+    private static final int ITEMS = Integer.getInteger("shareit.benchmark.items", 1_000_000);
+    private static final int WORDS = 20_000;
+    private static final int BATCH = 10_000;
+    private static final int ROUNDS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+
+    @Test
+    void compareIndexWithLikeQuery() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < WORDS; i++) {
+            words.add(randomWord(random));
+        }
+        jdbcTemplate.update("insert into users (user_name, email) values ('benchmark', 'benchmark@email.ru')");
+        Integer ownerId = jdbcTemplate.queryForObject("select user_id from users where email = 'benchmark@email.ru'",
+                Integer.class);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            batch.add(new Object[]{sentence(words, random, 2), sentence(words, random, 8), ownerId});
+            if (batch.size() == BATCH) {
+                insertItems(batch);
+            }
+        }
+        insertItems(batch);
+
+        long buildStart = System.nanoTime();
+        ItemSearchIndex itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.rebuild();
+        log.info("Индекс на {} вещей построен за {} мс", ITEMS, (System.nanoTime() - buildStart) / 1_000_000);
+
+        String word = words.get(WORDS / 2);
+        for (String query : List.of(word, word.substring(1, 4), word + " " + words.get(7))) {
+            List<ItemDto> likeResult = measure("LIKE", query, () -> itemRepository.searchItemsByText(query,
+                    PageRequest.of(0, 20)).stream().map(ItemMapper::toItemDto).collect(Collectors.toList()));
+            List<ItemDto> indexResult = measure("index", query,
+                    () -> itemSearchIndex.search(query, 0, 20).orElseThrow());
+            List<ItemDto> rankedResult = measure("relevance", query,
+                    () -> itemSearchIndex.searchByRelevance(query, 0, 20).orElseThrow());
+            assertEquals(likeResult.size(), indexResult.size());
+            assertEquals(likeResult.size(), rankedResult.size());
+        }
+    }
+
+    private void insertItems(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("insert into items (item_name, description, is_available, owner_id) " +
+                "values (?, ?, true, ?)", batch);
+        batch.clear();
+    }
+
+    private static List<ItemDto> measure(String name, String query, Supplier<List<ItemDto>> search) {
+        List<ItemDto> result = search.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            result = search.get();
+        }
+        log.info("{}: '{}' -> {} вещей, {} мкс на запрос", name, query, result.size(),
+                (System.nanoTime() - start) / ROUNDS / 1_000);
+        return result;
+    }
+
+    private static String sentence(List<String> words, Random random, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(words.get(random.nextInt(words.size())));
+        }
+        return sentence.toString();
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 5 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
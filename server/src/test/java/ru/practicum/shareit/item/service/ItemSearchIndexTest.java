@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    private ItemSearchIndex itemSearchIndex;
+    private final User user = new User(1, "userName", "user@email.ru");
+    private final Item drill = new Item(1, "Дрель", "Аккумуляторная дрель-шуруповерт", true, user, null);
+    private final Item saw = new Item(2, "Пила", "Циркулярная пила", true, user, null);
+    private final Item screwdriver = new Item(3, "Отвертка", "Крестовая отвертка", true, user, null);
+
+    @BeforeEach
+    void beforeEach() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAllAvailableForSearch()).thenReturn(List.of(ItemMapper.toItemDto(drill),
+                ItemMapper.toItemDto(saw), ItemMapper.toItemDto(screwdriver)));
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchKeepsSubstringSemantics() {
+        assertEquals(List.of(1), ids(itemSearchIndex.search("дрЕЛ", 0, 10)));
+        assertEquals(List.of(1), ids(itemSearchIndex.search("ь-шуруп", 0, 10)));
+        assertEquals(List.of(1, 2, 3), ids(itemSearchIndex.search("ая ", 0, 10)));
+        assertEquals(List.of(2), ids(itemSearchIndex.search("ная пила", 0, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.search("дрель пила", 0, 10)));
+    }
+
+    @Test
+    void searchSkipsExcludedIdsBeforePaging() {
+        BitSet booked = new BitSet();
+        booked.set(drill.getId());
+
+        assertEquals(List.of(2, 3), ids(itemSearchIndex.search("ая ", booked, 0, 10)));
+        assertEquals(List.of(3), ids(itemSearchIndex.search("ая ", booked, 1, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.searchByRelevance("дрель", booked, 0, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.searchFuzzy("дрел", 0.3, booked, 0, 10)));
+    }
+
+    @Test
+    void searchPaginatesMatches() {
+        assertEquals(List.of(2), ids(itemSearchIndex.search("а", 1, 1)));
+    }
+
+    @Test
+    void searchWithoutTokensIsNotAnswered() {
+        assertTrue(itemSearchIndex.search("--", 0, 10).isEmpty());
+        assertTrue(itemSearchIndex.searchByRelevance("--", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchIsNotAnsweredUntilRebuilt() {
+        ItemSearchIndex notBuilt = new ItemSearchIndex(mock(ItemRepository.class));
+
+        assertTrue(notBuilt.search("дрель", 0, 10).isEmpty());
+        assertTrue(notBuilt.searchByRelevance("дрель", 0, 10).isEmpty());
+        assertTrue(notBuilt.searchFuzzy("дрел", 0.3, 0, 10).isEmpty());
+    }
+
+    @Test
+    void rebuildReplaysUpdatesCommittedWhileLoading() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ItemSearchIndex rebuilding = new ItemSearchIndex(itemRepository);
+        when(itemRepository.findAllAvailableForSearch()).thenAnswer(invocation -> {
+            rebuilding.put(new Item(4, "Пила", "Ножовочная", true, user, null));
+            rebuilding.remove(saw.getId());
+            return List.of(ItemMapper.toItemDto(drill), ItemMapper.toItemDto(saw));
+        });
+
+        rebuilding.rebuild();
+
+        assertEquals(List.of(4), ids(rebuilding.search("пила", 0, 10)));
+        assertEquals(List.of(1), ids(rebuilding.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void searchByRelevanceRanksNameAboveDescription() {
+        itemSearchIndex.put(new Item(4, "Набор инструментов", "Пила, дрель и отвертка", true, user, null));
+        itemSearchIndex.put(new Item(5, "Пила", "Ножовочная", true, user, null));
+
+        assertEquals(List.of(2, 4, 5), ids(itemSearchIndex.search("пила", 0, 10)));
+        assertEquals(List.of(2, 5, 4), ids(itemSearchIndex.searchByRelevance("пила", 0, 10)));
+        assertEquals(List.of(5), ids(itemSearchIndex.searchByRelevance("пила", 1, 1)));
+    }
+
+    @Test
+    void searchFuzzyToleratesTypos() {
+        assertEquals(List.of(), ids(itemSearchIndex.search("отвретка", 0, 10)));
+        assertEquals(List.of(3), ids(itemSearchIndex.searchFuzzy("отвретка", 0.3, 0, 10)));
+        assertEquals(List.of(1), ids(itemSearchIndex.searchFuzzy("дрелл", 0.3, 0, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.searchFuzzy("дрелл", 0.6, 0, 10)));
+        assertTrue(itemSearchIndex.searchFuzzy("--", 0.3, 0, 10).isEmpty());
+    }
+
+    @Test
+    void putAndRemoveUpdateIndex() {
+        saw.setAvailable(false);
+        itemSearchIndex.put(saw);
+        itemSearchIndex.put(new Item(4, "Лобзик", "Пила-лобзик", true, user, null));
+        itemSearchIndex.remove(drill.getId());
+
+        assertEquals(List.of(4), ids(itemSearchIndex.search("пила", 0, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.search("дрель", 0, 10)));
+        assertEquals(List.of(), ids(itemSearchIndex.searchFuzzy("дрель", 0.3, 0, 10)));
+    }
+
+    private static List<Integer> ids(Optional<List<ItemDto>> items) {
+        return items.orElseThrow().stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@Transactional
+@SpringBootTest(
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking-expiry.enabled=false"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceIntegrationTest {
+
+    private final EntityManager em;
+    private final ItemService itemService;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = new User(0, "owner", "owner@email.ru");
+        booker = new User(0, "booker", "booker@email.ru");
+        em.persist(owner);
+        em.persist(booker);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 10; i++) {
+            Item item = new Item(0, "item" + i, "description" + i, true, owner, null);
+            em.persist(item);
+            em.persist(new Booking(0, now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.APPROVED,
+                    BookingPhase.PAST));
+            em.persist(new Booking(0, now.plusDays(2), now.plusDays(3), item, booker, BookingStatus.APPROVED,
+                    BookingPhase.FUTURE));
+            em.persist(new Comment(0, "comment" + i, item, booker, now));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findAllStatementCountDoesNotDependOnPageSize() {
+        long smallPageStatements = countStatements(2);
+        long largePageStatements = countStatements(10);
+
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void findAllFillsBookingsAndComments() {
+        List<ItemResponseDto> items = itemService.findAll(owner.getId(), 0, 10);
+
+        assertEquals(10, items.size());
+        for (ItemResponseDto item : items) {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(booker.getId(), item.getLastBooking().getBookerId());
+            assertEquals(1, item.getComments().size());
+        }
+    }
+
+    private long countStatements(int size) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        itemService.findAll(owner.getId(), 0, size);
+        em.clear();
+        statistics.clear();
+        List<ItemResponseDto> items = itemService.findAll(owner.getId(), 0, size);
+        assertEquals(size, items.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -8,9 +8,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.MessageFailedException;
 import ru.practicum.shareit.exception.ValidateException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
@@ -21,6 +24,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -49,6 +53,12 @@ public class ItemServiceTest {
     @MockBean
     private final CommentRepository commentRepository;
 
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final ItemBookingIndex itemBookingIndex;
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
     private final User user = new User(1, "userName", "user@email.ru");
     private final Item item = new Item(1, "item1", "description1", true, user, null);
     private final Comment comment = new Comment(1, "Comment", item, user,
@@ -117,11 +127,10 @@ public class ItemServiceTest {
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemsId(anyInt())).thenReturn(Collections.emptyList());
         when(commentRepository.findCommentsByItemId(anyInt())).thenReturn(Collections.emptyList());
 
         ItemResponseDto itemDto = ItemMapper.toItemResponseDto(item,
-                null,
+                (Booking) null,
                 null,
                 Collections.emptyList());
         ItemResponseDto newItemDto = itemService.findItemById(item.getId(), user.getId());
@@ -141,7 +150,6 @@ public class ItemServiceTest {
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findItemsByOwnerIdOrderById(user.getId(), Pageable.ofSize(15)))
                 .thenReturn(Collections.singletonList(item));
-        when(bookingRepository.findAllByItemsId(anyInt())).thenReturn(Collections.emptyList());
         when(commentRepository.findCommentsByItemId(anyInt())).thenReturn(Collections.emptyList());
 
         List<ItemResponseDto> itemsList = itemService.findAll(user.getId(),0,15);
@@ -156,10 +164,12 @@ public class ItemServiceTest {
 
     @Test
     void search() {
-        when(itemRepository.searchItemsByText("text", PageRequest.ofSize(15)))
-                .thenReturn(Collections.singletonList(item));
+        Item otherItem = new Item(2, "other", "other description", true, user, null);
+        when(itemRepository.findAllAvailableForSearch())
+                .thenReturn(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(otherItem)));
+        itemSearchIndex.rebuild();
 
-        List<ItemDto> items = itemService.search("text", user.getId(), 0, 15);
+        List<ItemDto> items = itemService.search("ion1", user.getId(), 0, 15, null, false, null, null);
 
         assertNotNull(items);
         assertEquals(1, items.size());
@@ -169,6 +179,49 @@ public class ItemServiceTest {
         assertEquals(item.getAvailable(), items.get(0).getAvailable());
     }
 
+    @Test
+    void searchWithPeriodExcludesBookedItems() {
+        Item otherItem = new Item(2, "other", "description2", true, user, null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        when(itemRepository.findAllAvailableForSearch())
+                .thenReturn(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(otherItem)));
+        when(bookingRepository.findItemIdsBookedBetween(BookingStatus.APPROVED, start, start.plusDays(2)))
+                .thenReturn(List.of(item.getId()));
+        itemSearchIndex.rebuild();
+
+        List<ItemDto> items = itemService.search("description", user.getId(), 0, 15, null, false, start,
+                start.plusDays(2));
+
+        assertEquals(1, items.size());
+        assertEquals(otherItem.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void searchWithWrongPeriod() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(ValidateException.class, () -> itemService.search("item", user.getId(), 0, 15, null, false,
+                start, null));
+        assertThrows(ValidateException.class, () -> itemService.search("item", user.getId(), 0, 15, null, false,
+                start, start));
+    }
+
+    @Test
+    void searchWithoutTokensFallsBackToRepository() {
+        when(itemRepository.searchItemsByText("-", PageRequest.ofSize(15)))
+                .thenReturn(Collections.singletonList(item));
+
+        List<ItemDto> items = itemService.search("-", user.getId(), 0, 15, null, false, null, null);
+
+        assertEquals(1, items.size());
+        assertEquals(item.getId(), items.get(0).getId());
+    }
+
+    @Test
+    void searchWithUnknownSort() {
+        assertThrows(MessageFailedException.class, () -> itemService.search("ion1", user.getId(), 0, 15, "price", false, null, null));
+    }
+
     @Test
     void addComment() {
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
@@ -248,22 +301,20 @@ public class ItemServiceTest {
     void getItemResponseDto() {
         Booking lastBooking = new Booking(1, LocalDateTime.of(2022, 10, 14, 13, 22, 22),
                 LocalDateTime.of(2022, 9, 15, 13, 22, 22),
-                item, user, BookingStatus.APPROVED);
+                item, user, BookingStatus.APPROVED, BookingPhase.PAST);
 
         Booking nextBooking = new Booking(1, LocalDateTime.of(2022, 10, 16, 13, 22, 22),
                 LocalDateTime.of(2022, 9, 17, 13, 22, 22),
-                item, user, BookingStatus.APPROVED);
+                item, user, BookingStatus.APPROVED, BookingPhase.PAST);
 
         when(userRepository.existsById(anyInt())).thenReturn(true);
         when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemsId(anyInt())).thenReturn(List.of(lastBooking));
         when(commentRepository.findCommentsByItemId(anyInt())).thenReturn(Collections.emptyList());
-        when(bookingRepository.findLastBookingByItemId(anyInt(), anyInt(), any()))
-                .thenReturn(List.of(lastBooking));
-        when(bookingRepository.findNextBookingByItemId(anyInt(), anyInt(), any()))
-                .thenReturn(List.of(nextBooking));
+        when(bookingRepository.findLastBookingsByItemIds(any(), any())).thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenReturn(List.of(nextBooking));
+        itemBookingIndex.remove(item.getId());
         ItemResponseDto itemDto = ItemMapper.toItemResponseDto(item,
                 lastBooking,
                 nextBooking,
@@ -278,4 +329,42 @@ public class ItemServiceTest {
         assertEquals(itemDto.getLastBooking(), findItemDto.getLastBooking());
         assertEquals(itemDto.getNextBooking(), findItemDto.getNextBooking());
     }
+
+    @Test
+    void getAvailabilityMergesBusyHoursIntoSlots() {
+        Item calendarItem = new Item(77, "calendar", "calendar item", true, user, null);
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(calendarItem.getId())).thenReturn(true);
+        bookingIntervalIndex.reserve(new Booking(770, base.plusMinutes(150), base.plusHours(5), calendarItem, user,
+                BookingStatus.WAITING, BookingPhase.FUTURE));
+
+        ItemAvailabilityDto availability = itemService.getAvailability(calendarItem.getId(), user.getId(), base,
+                base.plusHours(10));
+
+        assertEquals(List.of(new AvailabilitySlotDto(base, base.plusHours(2), true),
+                new AvailabilitySlotDto(base.plusHours(2), base.plusHours(5), false),
+                new AvailabilitySlotDto(base.plusHours(5), base.plusHours(10), true)), availability.getSlots());
+    }
+
+    @Test
+    void getAvailabilityWithWrongPeriod() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(anyInt())).thenReturn(true);
+
+        assertThrows(ValidateException.class, () -> itemService.getAvailability(item.getId(), user.getId(), from,
+                from));
+        assertThrows(ValidateException.class, () -> itemService.getAvailability(item.getId(), user.getId(), from,
+                from.plusYears(2)));
+    }
+
+    @Test
+    void getAvailabilityWithWrongItemId() {
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.existsById(anyInt())).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> itemService.getAvailability(item.getId(), user.getId(),
+                LocalDateTime.now(), LocalDateTime.now().plusDays(1)));
+    }
 }
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private TrigramIndex trigramIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        trigramIndex = new TrigramIndex();
+        trigramIndex.add("ОТВЕРТКА");
+        trigramIndex.add("ОТВОД");
+        trigramIndex.add("ДРЕЛЬ");
+    }
+
+    @Test
+    void trigramsArePadded() {
+        assertEquals(Set.of("  К", " КО", "КОТ", "ОТ "), TrigramIndex.trigrams("КОТ"));
+    }
+
+    @Test
+    void findContaining() {
+        assertEquals(Set.of("ОТВЕРТКА", "ОТВОД"), trigramIndex.findContaining("ОТВ"));
+        assertEquals(Set.of("ОТВЕРТКА"), trigramIndex.findContaining("ВЕРТ"));
+        assertEquals(Set.of(), trigramIndex.findContaining("ТВР"));
+    }
+
+    @Test
+    void findSimilar() {
+        Map<String, Double> similar = trigramIndex.findSimilar("ОТВРЕТКА", 0.3);
+
+        assertEquals(Set.of("ОТВЕРТКА"), similar.keySet());
+        assertEquals(5.0 / 13, similar.get("ОТВЕРТКА"), 1e-9);
+    }
+
+    @Test
+    void removeForgetsToken() {
+        trigramIndex.remove("ОТВОД");
+
+        assertEquals(Set.of("ОТВЕРТКА"), trigramIndex.findContaining("ОТВ"));
+        assertTrue(trigramIndex.findSimilar("ОТВОД", 0.3).isEmpty());
+    }
+}
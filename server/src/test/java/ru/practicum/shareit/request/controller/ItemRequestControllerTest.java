@@ -7,10 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.dto.ItemRequestDto;
 import ru.practicum.shareit.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.etag.ResourceVersion;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 
@@ -28,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(ResourceVersion.class)
 @AutoConfigureMockMvc
 class ItemRequestControllerTest {
 
@@ -68,6 +71,48 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.created", is(itemRequestResponseDto.getCreated().toString())));
     }
 
+    @Test
+    void createItemRequestWithIdempotencyKeyReplaysResponse() throws Exception {
+        when(itemRequestService.addItemRequest(anyInt(), any())).thenReturn(itemRequestResponseDto);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/requests")
+                            .content(mapper.writeValueAsString(itemRequestDto))
+                            .header("X-Sharer-User-Id", 1)
+                            .header("Idempotency-Key", "request-1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(itemRequestResponseDto.getId()), Integer.class))
+                    .andExpect(jsonPath("$.description", is(itemRequestResponseDto.getDescription())));
+        }
+
+        verify(itemRequestService, times(1)).addItemRequest(anyInt(), any());
+    }
+
+    @Test
+    void createItemRequestWithReusedIdempotencyKeyAndOtherBodyFails() throws Exception {
+        when(itemRequestService.addItemRequest(anyInt(), any())).thenReturn(itemRequestResponseDto);
+        mockMvc.perform(post("/requests")
+                        .content(mapper.writeValueAsString(itemRequestDto))
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "request-2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        itemRequestDto.setDescription("other description");
+
+        mockMvc.perform(post("/requests")
+                        .content(mapper.writeValueAsString(itemRequestDto))
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Idempotency-Key", "request-2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(itemRequestService, times(1)).addItemRequest(anyInt(), any());
+    }
+
     @Test
     void getAllByOwner() throws Exception {
         when(itemRequestService.findItemRequestByOwner(anyInt())).thenReturn(List.of(itemRequestResponseDto));
@@ -90,6 +135,47 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.created", is(itemRequestResponseDto.getCreated().toString())));
     }
 
+    @Test
+    void getRequestByIdWithMatchingEtagReturnsNotModified() throws Exception {
+        when(itemRequestService.findRequestById(anyInt(), anyInt())).thenReturn(itemRequestResponseDto);
+
+        String etag = mockMvc.perform(get("/requests/{requestId}", itemRequestDto.getId())
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/requests/{requestId}", itemRequestDto.getId())
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(itemRequestService, times(1)).findRequestById(anyInt(), anyInt());
+    }
+
+    @Test
+    void getRequestByIdAfterWriteDoesNotMatchOldEtag() throws Exception {
+        when(itemRequestService.findRequestById(anyInt(), anyInt())).thenReturn(itemRequestResponseDto);
+        when(itemRequestService.addItemRequest(anyInt(), any())).thenReturn(itemRequestResponseDto);
+        String etag = mockMvc.perform(get("/requests/{requestId}", itemRequestDto.getId())
+                        .header("X-Sharer-User-Id", 1))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/requests")
+                        .content(mapper.writeValueAsString(itemRequestDto))
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/requests/{requestId}", itemRequestDto.getId())
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+        verify(itemRequestService, times(2)).findRequestById(anyInt(), anyInt());
+    }
+
     @Test
     void getAllRequest() throws Exception {
         when(itemRequestService.findAllRequests(anyInt(),anyInt(),anyInt()))
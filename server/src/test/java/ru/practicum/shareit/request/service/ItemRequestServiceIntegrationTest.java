@@ -0,0 +1,92 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.dto.ItemRequestResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@SpringBootTest(
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking-expiry.enabled=false"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRequestServiceIntegrationTest {
+
+    private final EntityManager em;
+    private final ItemRequestService itemRequestService;
+
+    private User viewer;
+    private User requester;
+
+    @BeforeEach
+    void beforeEach() {
+        viewer = new User(0, "viewer", "viewer@email.ru");
+        requester = new User(0, "requester", "requester@email.ru");
+        em.persist(viewer);
+        em.persist(requester);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 10; i++) {
+            User owner = new User(0, "owner" + i, "owner" + i + "@email.ru");
+            em.persist(owner);
+            ItemRequest request = new ItemRequest(0, "request" + i, i % 2 == 0 ? requester : owner, now.minusHours(i));
+            em.persist(request);
+            em.persist(new Item(0, "item" + i, "description" + i, true, owner, request));
+            em.persist(new Item(0, "other item" + i, "other description" + i, true, viewer, request));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void findAllRequestsStatementCountDoesNotDependOnPageSize() {
+        long smallPageStatements = countStatements(() -> itemRequestService.findAllRequests(viewer.getId(), 0, 2), 2);
+        long largePageStatements = countStatements(() -> itemRequestService.findAllRequests(viewer.getId(), 0, 10),
+                10);
+
+        assertEquals(smallPageStatements, largePageStatements);
+    }
+
+    @Test
+    void findItemRequestByOwnerLoadsItemsInOneQuery() {
+        long statements = countStatements(() -> itemRequestService.findItemRequestByOwner(requester.getId()), 5);
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void findAllRequestsGroupsItemsByRequest() {
+        List<ItemRequestResponseDto> requests = itemRequestService.findAllRequests(viewer.getId(), 0, 10);
+
+        assertEquals(10, requests.size());
+        for (ItemRequestResponseDto request : requests) {
+            assertEquals(2, request.getItems().size());
+            request.getItems().forEach(item -> assertEquals(request.getId(), item.getRequestId()));
+        }
+    }
+
+    private long countStatements(Supplier<List<ItemRequestResponseDto>> query, int expectedSize) {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        query.get();
+        em.clear();
+        statistics.clear();
+        List<ItemRequestResponseDto> requests = query.get();
+        assertEquals(expectedSize, requests.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+    private final User user1 = new User(1, "user1", "user1@email.ru");
+    private final User user2 = new User(2, "user2", "user2@email.ru");
+    private final User user3 = new User(3, "user3", "user3@email.ru");
+    private final MutableClock clock = new MutableClock();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserRepository userRepository;
+    private UserCache userCache;
+
+    @BeforeEach
+    void beforeEach() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
+        when(userRepository.findById(2)).thenReturn(Optional.of(user2));
+        when(userRepository.findById(3)).thenReturn(Optional.of(user3));
+        when(userRepository.findById(99)).thenReturn(Optional.empty());
+        userCache = new UserCache(userRepository, meterRegistry, 2, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void findServesRepeatedLookupsFromMemory() {
+        userCache.find(1);
+        User cached = userCache.find(1).orElseThrow();
+
+        assertEquals(user1, cached);
+        assertEquals(user1.getName(), cached.getName());
+        assertNotSame(user1, cached);
+        verify(userRepository, times(1)).findById(1);
+        assertEquals(1, counter("shareit.user.cache.requests", "result", "hit"));
+        assertEquals(1, counter("shareit.user.cache.requests", "result", "miss"));
+    }
+
+    @Test
+    void findDoesNotCacheMissingUser() {
+        assertTrue(userCache.find(99).isEmpty());
+        assertTrue(userCache.find(99).isEmpty());
+
+        verify(userRepository, times(2)).findById(99);
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void findReloadsExpiredUser() {
+        userCache.find(1);
+        clock.advance(Duration.ofMinutes(2));
+        userCache.find(1);
+
+        verify(userRepository, times(2)).findById(1);
+        assertEquals(1, counter("shareit.user.cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    void findEvictsLeastRecentlyUsedUser() {
+        userCache.find(1);
+        userCache.find(2);
+        userCache.find(1);
+        userCache.find(3);
+        userCache.find(1);
+        userCache.find(2);
+
+        verify(userRepository, times(1)).findById(1);
+        verify(userRepository, times(2)).findById(2);
+        assertEquals(2, userCache.size());
+        assertEquals(2, counter("shareit.user.cache.evictions", "cause", "size"));
+        assertEquals(2.0, meterRegistry.get("shareit.user.cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidateForgetsUser() {
+        userCache.find(1);
+        userCache.invalidate(1);
+        userCache.find(1);
+
+        verify(userRepository, times(2)).findById(1);
+    }
+
+    @Test
+    void findDoesNotCacheUserInvalidatedWhileLoading() {
+        when(userRepository.findById(1)).thenAnswer(invocation -> {
+            userCache.invalidate(1);
+            return Optional.of(user1);
+        }).thenReturn(Optional.of(user1));
+
+        userCache.find(1);
+        userCache.find(1);
+
+        verify(userRepository, times(2)).findById(1);
+    }
+
+    private double counter(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2022-12-12T12:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
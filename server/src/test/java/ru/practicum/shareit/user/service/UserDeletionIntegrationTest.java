@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(
+        properties = "shareit.booking-expiry.enabled=false",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserDeletionIntegrationTest {
+
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(0, "owner", "deletion-owner@email.ru"));
+        booker = userRepository.save(new User(0, "booker", "deletion-booker@email.ru"));
+        item = itemRepository.save(new Item(0, "Дрель", "Аккумуляторная дрель", true, owner, null));
+    }
+
+    @Test
+    void deletedBookerDoesNotBlockItsBookedInterval() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingRequestDto request = new BookingRequestDto(item.getId(), start, start.plusDays(1));
+        bookingService.addBooking(booker.getId(), request);
+
+        userService.deleteUser(booker.getId());
+        booker = userRepository.save(new User(0, "booker", "deletion-booker@email.ru"));
+        BookingResponseDto booking = bookingService.addBooking(booker.getId(), request);
+
+        assertNotNull(booking.getId());
+    }
+
+    @Test
+    void deletedOwnerItemsDisappearFromSearch() {
+        itemService.addItem(new ItemDto(0, "Перфоратор", "Перфоратор для удаления", true, null), owner.getId());
+
+        userService.deleteUser(owner.getId());
+
+        for (String sort : List.of("ID", "RELEVANCE")) {
+            assertEquals(List.of(), itemService.search("перфоратор", booker.getId(), 0, 10, sort, false,
+                    null, null));
+        }
+        assertEquals(List.of(), itemService.search("перфаратор", booker.getId(), 0, 10, null, true, null, null));
+    }
+
+    @AfterEach
+    void afterEach() {
+        userRepository.findAll().stream()
+                .filter(user -> user.getEmail().startsWith("deletion-"))
+                .forEach(user -> userRepository.deleteById(user.getId()));
+    }
+}